@@ -0,0 +1,49 @@
+package model;
+
+import model.physics.PhysicsEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full {@link SystemManager#checkCollisions()} pass: snapshots, broad
+ * phase, narrow phase and the hit reactions (noise, impulses, destruction).
+ *
+ * Hits mutate the packets, so the population is rewound before every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckCollisionsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int packets;
+
+    @Param({"DENSE", "SPARSE"})
+    public PacketPopulation.Layout layout;
+
+    @Param({"SERIAL", "PARALLEL"})
+    public PhysicsEngine.Mode mode;
+
+    private PacketPopulation population;
+
+    @Setup(Level.Trial)
+    public void build() {
+        population = new PacketPopulation(packets, layout, 42L);
+        population.manager.setCollisionMode(mode);
+    }
+
+    @Setup(Level.Invocation)
+    public void rewind() {
+        population.reset();
+    }
+
+    @Benchmark
+    public int checkCollisions() {
+        population.manager.checkCollisions();
+        return population.manager.allPackets.size();
+    }
+}
@@ -0,0 +1,57 @@
+package model;
+
+import model.physics.ImpactEvent;
+import model.physics.PhysicsEngine;
+
+import java.util.List;
+
+/**
+ * SERIAL vs PARALLEL narrow phase on populations big enough that the
+ * parallel one really forks: the sorted impact lists must be identical.
+ * The shipped levels never reach the split threshold, so this is the check
+ * that exercises the ForkJoin path.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar model.CollisionModesCheck
+ *
+ * Exits with status 1 on the first disagreement. CollisionPhasesBenchmark
+ * runs the same check before measuring.
+ */
+public final class CollisionModesCheck {
+
+    private static final int MIN_PAIRS = 256;
+
+    private CollisionModesCheck() { }
+
+    public static void main(String[] args) {
+        for (int packets : new int[] { 1_000, 10_000 }) {
+            PacketPopulation dense = new PacketPopulation(packets, PacketPopulation.Layout.DENSE, 42L);
+            for (int split : new int[] { 256, 16, 1 }) {
+                int hits = assertModesAgree(dense, split);
+                java.lang.System.out.printf("DENSE %6d packets, split %3d: %d impacts, modes agree%n", packets, split, hits);
+            }
+        }
+    }
+
+    /**
+     * Runs one pass over {@code population} in both modes, PARALLEL with
+     * {@code split} as its leaf size, and returns the impact count. Throws if
+     * the population has fewer than {@value #MIN_PAIRS} candidate pairs
+     * (PARALLEL would not fork) or the two lists differ.
+     */
+    public static int assertModesAgree(PacketPopulation population, int split) {
+        PhysicsEngine serial = population.load(new PhysicsEngine());
+        PhysicsEngine parallel = population.load(new PhysicsEngine());
+        parallel.setMode(PhysicsEngine.Mode.PARALLEL);
+        parallel.setSplitThreshold(split);
+
+        List<ImpactEvent> expected = serial.detectImpacts();
+        List<ImpactEvent> actual = parallel.detectImpacts();
+        int pairs = parallel.getCandidatePairs();
+        if (pairs < Math.max(MIN_PAIRS, split + 1))
+            throw new IllegalStateException("only " + pairs + " candidate pairs: PARALLEL would not fork at split " + split);
+        if (!expected.equals(actual))
+            throw new IllegalStateException("SERIAL and PARALLEL disagree over " + pairs + " pairs: "
+                    + expected.size() + " vs " + actual.size() + " impacts");
+        return expected.size();
+    }
+}
@@ -0,0 +1,101 @@
+package model;
+
+import model.physics.PhysicsEngine;
+import model.physics.Polygons;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The collision pass end to end and phase by phase, against PhysicsEngine.
+ * None of it mutates packets, so the snapshots are loaded once per trial;
+ * dense trials first check that both modes agree (see CollisionModesCheck).
+ *
+ *   detectSerial / detectParallel  – broad + narrow phase, as checkCollisions runs them
+ *   broadPhase                     – grid refresh + circle tests only
+ *   narrowSerial / narrowParallel  – polygon tests over the broad phase's pairs only
+ *
+ * One op is a pass over the whole population (or over its neighbour pairs
+ * for {@code polygonsIntersect}), so numbers scale with the packet count.
+ * With no hits every pass should report ~0 B/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionPhasesBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int packets;
+
+    @Param({"DENSE", "SPARSE"})
+    public PacketPopulation.Layout layout;
+
+    private PhysicsEngine serial, parallel;
+    private int[][] shapes;
+    private int[] xs, ys;
+
+    @Setup(Level.Trial)
+    public void build() {
+        PacketPopulation population = new PacketPopulation(packets, layout, 42L);
+        if (layout == PacketPopulation.Layout.DENSE) CollisionModesCheck.assertModesAgree(population, 256);
+
+        serial = population.load(new PhysicsEngine());
+        parallel = population.load(new PhysicsEngine());
+        parallel.setMode(PhysicsEngine.Mode.PARALLEL);
+        serial.broadPhase();                    // pairs for the narrow-only benchmarks
+        parallel.broadPhase();
+
+        shapes = new int[packets][];
+        xs = new int[packets];
+        ys = new int[packets];
+        for (int i = 0; i < packets; i++) {
+            Packet p = population.packets[i];
+            shapes[i] = p.hitShape();
+            xs[i] = p.getScreenPosition().x;
+            ys[i] = p.getScreenPosition().y;
+        }
+    }
+
+    /** Broad + narrow phase on one thread. */
+    @Benchmark
+    public int detectSerial() {
+        return serial.detectImpacts().size();
+    }
+
+    /** Same pass with the narrow phase on the common ForkJoin pool. */
+    @Benchmark
+    public int detectParallel() {
+        return parallel.detectImpacts().size();
+    }
+
+    /** Broad phase alone: re-file every snapshot and collect the overlapping circles. */
+    @Benchmark
+    public int broadPhase() {
+        return serial.broadPhase();
+    }
+
+    /** Narrow phase alone, on one thread, over the pairs found in setup. */
+    @Benchmark
+    public int narrowSerial() {
+        return serial.narrowPhase(PhysicsEngine.Mode.SERIAL).size();
+    }
+
+    /** Narrow phase alone, split across the common ForkJoin pool. */
+    @Benchmark
+    public int narrowParallel() {
+        return parallel.narrowPhase(PhysicsEngine.Mode.PARALLEL).size();
+    }
+
+    /** Each packet against its successor in layout order: the typical broad-phase survivor. */
+    @Benchmark
+    public int polygonsIntersect() {
+        int hits = 0;
+        for (int i = 0; i + 1 < shapes.length; i++) {
+            if (Polygons.intersect(shapes[i], xs[i], ys[i], shapes[i + 1], xs[i + 1], ys[i + 1])) hits++;
+        }
+        return hits;
+    }
+}
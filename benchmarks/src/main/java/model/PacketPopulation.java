@@ -0,0 +1,99 @@
+package model;
+
+import model.packets.BigPacket2;
+import model.packets.ProtectedPacket;
+import model.packets.SecretPacket2;
+import model.packets.SquarePacket;
+import model.packets.TrianglePacket;
+import model.physics.PhysicsEngine;
+import model.ports.InputPort;
+import model.ports.OutputPort;
+import model.systems.NormalSystem;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic in-flight packet population for the collision benchmarks.
+ *
+ * Lives in package {@code model} so it can rewind the protected per-packet
+ * state (noise, impact drift) between invocations without reflection.
+ */
+public final class PacketPopulation {
+
+    public enum Layout {
+        /** ~12 px apart: almost every packet overlaps its grid neighbours. */
+        DENSE(12),
+        /** ~60 px apart: broad phase finds candidates, narrow phase rarely hits. */
+        SPARSE(60);
+
+        final int spacing;
+        Layout(int spacing) { this.spacing = spacing; }
+    }
+
+    public final SystemManager manager;
+    public final Line line;
+    public final Packet[] packets;
+    private final Point[] home;
+
+    public PacketPopulation(int count, Layout layout, long seed) {
+        manager = new SystemManager(new GameStatus());
+
+        // one wire that every synthetic packet claims to be travelling on
+        List<InputPort> in = new ArrayList<>();
+        List<OutputPort> out = new ArrayList<>();
+        NormalSystem sys = new NormalSystem(new Point(0, 0), in, out, manager, 1);
+        OutputPort op = new OutputPort(sys, new Point(0, 0));
+        InputPort ip = new InputPort(sys, new Point(1, 0));
+        out.add(op);
+        in.add(ip);
+        manager.addSystem(sys);
+        line = new Line(op, ip);
+
+        Random rng = new Random(seed);
+        int cols = (int) Math.ceil(Math.sqrt(count));
+        int jitter = Math.max(1, layout.spacing / 4);
+
+        packets = new Packet[count];
+        home = new Point[count];
+        for (int i = 0; i < count; i++) {
+            // mixed shapes: squares, triangles, big clusters and padlocks
+            packets[i] = switch (i & 3) {
+                case 0 -> new SquarePacket();
+                case 1 -> new TrianglePacket();
+                case 2 -> new BigPacket2(i % 6);
+                default -> new SecretPacket2<>(new ProtectedPacket<>(new SquarePacket()));
+            };
+            home[i] = new Point(
+                    (i % cols) * layout.spacing + rng.nextInt(jitter),
+                    (i / cols) * layout.spacing + rng.nextInt(jitter));
+            manager.addPacket(packets[i]);
+        }
+        reset();
+    }
+
+    /** Put every packet back on the wire at its home position with no noise, drift or contacts. */
+    public void reset() {
+        manager.clearContacts();
+        for (int i = 0; i < packets.length; i++) {
+            Packet p = packets[i];
+            p.beginTraversal(line, home[i]);
+            p.noise = 0;
+            p.impactVX = p.impactVY = 0f;
+            p.impactDX = p.impactDY = 0f;
+            manager.registry().add(p);          // re-register packets destroyed by noise
+        }
+    }
+
+    /** Snapshot every packet at its current spot into {@code engine}, as checkCollisions does; slot i is packets[i]. */
+    public PhysicsEngine load(PhysicsEngine engine) {
+        engine.beginPass();
+        for (Packet p : packets) {
+            Point c = p.getScreenPosition();
+            engine.add(p.getId(), c.x, c.y, p.collisionRadius(), p.hitShape());
+        }
+        return engine;
+    }
+}
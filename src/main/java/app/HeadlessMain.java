@@ -0,0 +1,207 @@
+// app/HeadlessMain.java
+package app;
+
+import model.LevelsManager;
+import model.Packet;
+import model.SystemManager;
+import model.Line;
+import model.physics.PhysicsEngine;
+import model.profiling.TickProfiler;
+import model.ports.InputPort;
+import model.ports.OutputPort;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs one level with no Swing at all, as fast as the CPU allows.
+ *
+ *   • builds the level from gameConfig.json (via LevelsManager)
+ *   • wires every output port to the nearest free input port of the same type
+ *   • launches and steps SystemManager.update() back-to-back with the same
+ *     fixed dt the GameController uses, then prints throughput and results
+ *     (the game's own stdout is muted while the loop is timed)
+ *
+ * Exits with status 3, without timing anything, if the level is not ready
+ * after wiring (a port left unwired, or a straight wire cutting a system
+ * while clearance is enforced) – the packets would never launch.
+ *
+ * Usage: HeadlessMain [--level name|index] [--ticks N] [--no-clearance] [--headway PX]
+ *                     [--collisions serial|parallel] [--verify-collisions] [--profile]
+ *
+ * --headway PX pipelines every wire: the next packet may leave once the
+ * previous one is PX px down the wire (default 0, one packet per wire).
+ *
+ * --verify-collisions runs both narrow phases every tick and reports how
+ * many ticks produced different impact lists (should always be 0); the
+ * parallel one splits down to single pairs so it forks on any level.
+ * --profile turns on the per-phase TickProfiler and prints its histograms;
+ * run with -XX:StartFlightRecording to also get p2p.Tick JFR events.
+ */
+public class HeadlessMain {
+
+    private static final float FIXED_DT = Packet.dt * Packet.SPEED_SCALE;   // same step as GameController
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        String level = "0";
+        long ticks = 10_000;
+        boolean clearance = true;
+        PhysicsEngine.Mode collisions = PhysicsEngine.Mode.SERIAL;
+        boolean verify = false;
+        boolean profile = false;
+        float headway = 0f;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--level"        -> level = args[++i];
+                case "--ticks"        -> ticks = Long.parseLong(args[++i]);
+                case "--no-clearance" -> clearance = false;
+                case "--headway"      -> headway = Float.parseFloat(args[++i]);
+                case "--collisions"   -> collisions = PhysicsEngine.Mode.valueOf(args[++i].toUpperCase());
+                case "--verify-collisions" -> verify = true;
+                case "--profile"      -> profile = true;
+                default -> {
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.err.println("Usage: HeadlessMain [--level name|index] [--ticks N] [--no-clearance] [--headway PX]"
+                            + " [--collisions serial|parallel] [--verify-collisions] [--profile]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        // ── Build the model (no view classes involved) ─────────────
+        LevelsManager.gameStatus.setAutosave(false);   // never touch the player's save file
+        LevelsManager levels = new LevelsManager();
+        SystemManager sm = level.matches("\\d+")
+                ? levelByIndex(levels, level)
+                : levels.getLevelManager(level);
+        if (sm == null) {
+            System.err.println("No such level: " + level);
+            System.exit(2);
+        }
+        sm.setEnforceWireClearance(clearance);
+        sm.setWireHeadway(headway);
+        sm.setCollisionMode(collisions);
+        sm.getPhysics().setVerify(verify);
+        if (verify) sm.getPhysics().setSplitThreshold(1);   // fork down to single pairs, even on small levels
+        if (profile) sm.getProfiler().setEnabled(true);
+
+        int wires = autoWire(sm);
+        int initialPackets = sm.allPackets.size();
+        sm.update(FIXED_DT);               // settles readiness; nothing moves before launch
+        if (!sm.isReady()) {
+            System.err.printf("Level %s is not ready after wiring %d wires: %d unwired ports, %d clearance violations.%n",
+                    level, wires, sm.getUnwiredPortCount(), sm.getClearanceViolationCount());
+            if (sm.getClearanceViolationCount() > 0)
+                System.err.println("The straight auto-wires cut through systems; rerun with --no-clearance.");
+            System.exit(3);
+        }
+        sm.launchPackets();
+
+        // ── Run ─────────────────────────────────────────────────────
+        // the model prints deliveries and the outcome; keep that I/O out of the timing
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long t0 = System.nanoTime();
+        long done = 0;
+        try {
+            while (done < ticks && !sm.isLevelOver()) {
+                sm.update(FIXED_DT);
+                done++;
+            }
+        } finally {
+            System.setOut(stdout);
+        }
+        long elapsed = System.nanoTime() - t0;
+
+        // ── Report ──────────────────────────────────────────────────
+        double secs = elapsed / 1e9;
+        System.out.printf("level            : %s%n", level);
+        System.out.printf("wires            : %d%n", wires);
+        System.out.printf("ready            : %b%n", sm.isReady());
+        System.out.printf("ticks            : %d%s%n", done, sm.isLevelOver() ? " (level over)" : "");
+        System.out.printf("wall time        : %.3f s%n", secs);
+        System.out.printf("ticks/sec        : %.0f%n", secs > 0 ? done / secs : 0.0);
+        System.out.printf("packets          : %d initial, %d left%n", initialPackets, sm.allPackets.size());
+        System.out.printf("packets delivered: %d%n", sm.getReceivedPacketCount());
+        System.out.printf("coins            : %d%n", sm.coinCount);
+        System.out.printf("level passed     : %b%n", sm.isLevelPassed());
+        System.out.printf("headway          : %s%n", headway > 0 ? headway + " px" : "off");
+        System.out.printf("collisions       : %s%n", collisions);
+        if (verify)
+            System.out.printf("impact mismatches: %d%n", sm.getPhysics().getMismatches());
+        if (sm.getProfiler().isEnabled()) printProfile(sm.getProfiler());
+    }
+
+    /** Level by position in gameConfig.json, or null if there is none. */
+    private static SystemManager levelByIndex(LevelsManager levels, String digits) {
+        int idx;
+        try {
+            idx = Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return null;                   // longer than any int
+        }
+        return idx < levels.getAllLevelManagers().size() ? levels.getLevelManager(idx) : null;
+    }
+
+    /** Per-phase table over the profiler's rolling window (microseconds). */
+    private static void printProfile(TickProfiler prof) {
+        System.out.printf("%nprofile (last %d of %d ticks, us)%n",
+                prof.tickHistogram().count(), prof.ticksRecorded());
+        System.out.printf("  %-14s %9s %9s %9s %9s%n", "phase", "mean", "p50", "p99", "max");
+        for (TickProfiler.Phase p : TickProfiler.Phase.values())
+            printRow(p.name(), prof.histogram(p));
+        printRow("TICK", prof.tickHistogram());
+    }
+
+    private static void printRow(String name, TickProfiler.RollingHistogram h) {
+        System.out.printf("  %-14s %9.1f %9.1f %9.1f %9.1f%n", name,
+                h.mean() / 1e3, h.percentile(0.50) / 1e3, h.percentile(0.99) / 1e3, h.max() / 1e3);
+    }
+
+    /**
+     * Greedy wiring: every unwired output port gets the closest unwired input
+     * port of the same type, preferring other systems and falling back to a
+     * loop-back on its own system. Returns the number of wires.
+     */
+    static int autoWire(SystemManager sm) {
+        List<InputPort> free = new ArrayList<>();
+        for (model.System sys : sm.getAllSystems())
+            for (InputPort ip : sys.getInputPorts())
+                if (ip.getLine() == null) free.add(ip);
+
+        int made = 0;
+        for (model.System sys : sm.getAllSystems()) {
+            for (OutputPort op : sys.getOutputPorts()) {
+                if (op.getLine() != null) continue;
+
+                InputPort best = closestFree(free, op, false);
+                if (best == null) best = closestFree(free, op, true);
+                if (best == null) continue;
+
+                Line wire = new Line(op, best);
+                op.setLine(wire);
+                best.setLine(wire);
+                sm.addLine(wire);
+                free.remove(best);
+                made++;
+            }
+        }
+        return made;
+    }
+
+    private static InputPort closestFree(List<InputPort> free, OutputPort op, boolean allowSelf) {
+        InputPort best = null;
+        double bestD = Double.POSITIVE_INFINITY;
+        for (InputPort ip : free) {
+            if (ip.getType() != op.getType()) continue;
+            if (!allowSelf && ip.getParentSystem() == op.getParentSystem()) continue;
+            double d = ip.getCenter().distance(op.getCenter());
+            if (d < bestD) { bestD = d; best = ip; }
+        }
+        return best;
+    }
+}
@@ -137,13 +137,12 @@ public class ConnectionController extends MouseInputAdapter {
                 return;
             }
 
-            for (Line l : model.allLines) {
-                if (l.hit(p, 5)) {
-                    editLine = l;
-                    lastContextPoint = p;              // <- save click point
-                    lineMenu.show(canvas, p.x, p.y);
-                    return;
-                }
+            Line l = model.lineAt(p, 5);
+            if (l != null) {
+                editLine = l;
+                lastContextPoint = p;              // <- save click point
+                lineMenu.show(canvas, p.x, p.y);
+                return;
             }
         }
         // 2) bend FSM consumes left-clicks when active
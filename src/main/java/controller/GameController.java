@@ -55,32 +55,42 @@
 //}
 package controller;
 
+import model.FrameSnapshot;
 import model.Packet;
 import model.SystemManager;
 import view.GamePanel;
 
 import javax.swing.*;
 import java.awt.CardLayout;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Sets up the in-level screen:
  *   • builds a GamePanel from the SystemManager
  *   • installs ConnectionController for wiring
- *   • runs a 60 Hz simulation on a background thread
- *   • repaints on the EDT
+ *   • runs the simulation on a background thread at a fixed step
+ *   • repaints on the EDT at display rate, independent of that step
+ *
+ * The sim thread keeps a wall-clock accumulator and runs one update per
+ * whole step it holds, so late wake-ups are caught up rather than lost and
+ * the step never varies. The panel interpolates packets between the last
+ * two ticks, so the sim rate can be lowered (-Dp2p.simHz=30 on big levels)
+ * without motion getting choppier.
  */
 public class GameController {
 
-    private static final float FIXED_DT = 1f / 60f;   // 60 Hz sim tick
+    private static final int SIM_HZ     = Integer.getInteger("p2p.simHz", 60);
+    private static final int REPAINT_MS = 16;          // ~60 FPS display rate
+    private static final int MAX_CATCH_UP = 5;         // steps per wake-up before dropping time
+    private static final long STOP_TIMEOUT_MS = 1000;
 
     private final GamePanel panel;
     private final JButton   launchBtn = new JButton("Launch packets");
     private final SystemManager sm;
 
-    private ScheduledExecutorService simExec;
+    private volatile boolean running;
+    private Thread simThread;
+    private Timer  repaintTimer;
 
     public GameController(SystemManager sm, JPanel cards) {
         this.sm = sm;
@@ -107,34 +117,64 @@ public class GameController {
     }
 
     private void startSimulation() {
+        // one tick of sim time per step; timed effects and impacts count ticks of this length
+        sm.setTickSeconds(1f / Math.max(1, SIM_HZ));
+        running = true;
+
         // single worker thread for deterministic updates
-        simExec = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "SimThread");
-            t.setDaemon(true);
-            return t;
+        simThread = new Thread(this::runSimulation, "SimThread");
+        simThread.setDaemon(true);
+        simThread.start();
+
+        // UI work must happen on the EDT, at its own cadence
+        repaintTimer = new Timer(REPAINT_MS, e -> {
+            panel.repaint();
+            FrameSnapshot f = sm.getFrame();
+            launchBtn.setEnabled(f != null && f.ready && !f.launched);
         });
+        repaintTimer.start();
+    }
 
-        simExec.scheduleAtFixedRate(() -> {
-            try {
-                // physics step (off the EDT)
-                sm.update(FIXED_DT * Packet.SPEED_SCALE);
-
-                // UI work must happen on the EDT
-                SwingUtilities.invokeLater(() -> {
-                    panel.repaint();
-                    launchBtn.setEnabled(sm.isReady() && !sm.isLaunched());
-                });
-            } catch (Throwable t) {
-                t.printStackTrace(); // don't let the scheduler die silently
+    private void runSimulation() {
+        final long  step = Math.round(sm.getTickSeconds() * 1e9);
+        final float dt   = sm.getTickSeconds() * Packet.SPEED_SCALE;   // ← SCALE knob
+        long last = System.nanoTime();
+        long acc  = 0;
+        while (running) {
+            long now = System.nanoTime();
+            acc += now - last;
+            last = now;
+            // after a long stall (debugger, GC) drop the backlog instead of spiralling
+            if (acc > MAX_CATCH_UP * step) acc = MAX_CATCH_UP * step;
+            while (acc >= step && running) {
+                try {
+                    sm.update(dt);           // physics step (off the EDT)
+                } catch (Throwable t) {
+                    t.printStackTrace();     // don't let the sim thread die silently
+                }
+                acc -= step;
             }
-        }, 0, 16, TimeUnit.MILLISECONDS); // ~60 FPS cadence
+            LockSupport.parkNanos(step - acc);
+        }
     }
 
-    /** Call when leaving the level */
+    /** Call when leaving the level; returns once no update can still be running. */
     public void stop() {
-        if (simExec != null) {
-            simExec.shutdownNow();
-            simExec = null;
+        running = false;
+        if (simThread != null) {
+            LockSupport.unpark(simThread);
+            try {
+                simThread.join(STOP_TIMEOUT_MS);        // let an update in progress finish
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (simThread.isAlive())
+                System.err.println("SimThread still running " + STOP_TIMEOUT_MS + " ms after stop()");
+            simThread = null;
+        }
+        if (repaintTimer != null) {
+            repaintTimer.stop();
+            repaintTimer = null;
         }
     }
 }
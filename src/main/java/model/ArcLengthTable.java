@@ -0,0 +1,109 @@
+package model;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.util.List;
+
+/**
+ * Cumulative arc-length table over one flattened wire path.
+ *
+ * Built once per (line, smoothness, geometry version) by {@link Line} and
+ * shared by every packet on that wire. All queries are read-only, O(log n)
+ * in the number of path vertices and allocation-free.
+ */
+public final class ArcLengthTable {
+    private final float[] xs, ys;
+    private final float[] cum;        // cum[i] = distance from start to vertex i
+    private final float[] seg;        // seg[i] = length of segment i → i+1
+
+    ArcLengthTable(List<Point> path) {
+        int n = path.size();
+        xs  = new float[n];
+        ys  = new float[n];
+        cum = new float[n];
+        seg = new float[Math.max(0, n - 1)];
+        double run = 0;
+        for (int i = 0; i < n; i++) {
+            Point p = path.get(i);
+            xs[i] = p.x;
+            ys[i] = p.y;
+            if (i > 0) {
+                double d = path.get(i - 1).distance(p);
+                seg[i - 1] = (float) d;
+                run += d;
+            }
+            cum[i] = (float) run;
+        }
+    }
+
+    /** Total length of the path in px. */
+    public float length()          { return cum.length == 0 ? 0f : cum[cum.length - 1]; }
+    public int   vertexCount()     { return xs.length; }
+    public int   segmentCount()    { return Math.max(0, xs.length - 1); }
+    public float x(int i)          { return xs[i]; }
+    public float y(int i)          { return ys[i]; }
+    public float distanceTo(int i) { return cum[i]; }
+    public float segmentLength(int i) { return seg[i]; }
+
+    /**
+     * Index of the segment containing arc-length {@code s}; clamped to the
+     * first/last segment when {@code s} falls outside [0, length].
+     */
+    public int segmentAt(float s) {
+        int last = xs.length - 2;
+        if (last <= 0 || s <= 0f) return 0;
+        if (s >= cum[last]) return last;
+        // largest i with cum[i] <= s
+        int lo = 0, hi = last;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (cum[mid] <= s) lo = mid; else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /** Arc-length of the path point closest to (px, py). Linear in the vertex count. */
+    public float project(float px, float py) {
+        if (xs.length < 2) return 0f;
+        float best = 0f;
+        double bestD2 = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < seg.length; i++) {
+            float dx = xs[i + 1] - xs[i], dy = ys[i + 1] - ys[i];
+            float len2 = dx * dx + dy * dy;
+            float t = len2 == 0f ? 0f
+                    : Math.max(0f, Math.min(1f, ((px - xs[i]) * dx + (py - ys[i]) * dy) / len2));
+            double ex = xs[i] + dx * t - px, ey = ys[i] + dy * t - py;
+            double d2 = ex * ex + ey * ey;
+            if (d2 < bestD2) { bestD2 = d2; best = cum[i] + t * seg[i]; }
+        }
+        return best;
+    }
+
+    /** Point at arc-length {@code s}, rounded to pixels, written into {@code dst}. */
+    public Point pointAt(float s, Point dst) {
+        if (xs.length == 0) return dst;
+        if (xs.length == 1) { dst.setLocation(xs[0], ys[0]); return dst; }
+
+        int   i   = segmentAt(s);
+        float len = seg[i];
+        float t   = len == 0f ? 0f : Math.max(0f, Math.min(1f, (s - cum[i]) / len));
+        dst.x = Math.round(xs[i] + (xs[i + 1] - xs[i]) * t);
+        dst.y = Math.round(ys[i] + (ys[i + 1] - ys[i]) * t);
+        return dst;
+    }
+
+    /** Unit direction of travel at arc-length {@code s}, written into {@code dst}. */
+    public Point2D.Float tangentAt(float s, Point2D.Float dst) {
+        if (xs.length < 2) { dst.setLocation(1f, 0f); return dst; }
+        return segmentTangent(segmentAt(s), dst);
+    }
+
+    /** Unit direction of segment {@code i}; the zero vector for a zero-length segment. */
+    public Point2D.Float segmentTangent(int i, Point2D.Float dst) {
+        float dx  = xs[i + 1] - xs[i], dy = ys[i + 1] - ys[i];
+        float len = seg[i];
+        if (len == 0f) dst.setLocation(0f, 0f);
+        else           dst.setLocation(dx / len, dy / len);
+        return dst;
+    }
+}
@@ -8,6 +8,7 @@ public class BendPoint {
     private final Point start;            // foot on the straight segment
     private       Point middle;           // draggable control point
     private final Point end;              // other foot
+    private       Line  owner;            // wire whose cached path depends on us
 
     /* ready-made when the caller already knows all 3 points */
     public BendPoint(Point start, Point middle, Point end) {
@@ -20,7 +21,13 @@ public class BendPoint {
     public Point getStart()  { return start; }
     public Point getEnd()    { return end;   }
     public Point getMiddle() { return middle;}
-    public void  setMiddle(Point m){ this.middle = m; }
+    public void  setMiddle(Point m){
+        this.middle = m;
+        if (owner != null) owner.invalidateGeometry();
+    }
+
+    /* set by Line when the bend is added / removed */
+    void attach(Line line) { this.owner = line; }
 
     /* ----------------------------------------------------------
      *  Quadratic Bézier sampling:  returns N interior points
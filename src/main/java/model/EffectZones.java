@@ -0,0 +1,87 @@
+package model;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Timed trigger points of one kind on one wire (zero-acceleration or
+ * back-to-centre), kept as arc-length positions sorted along the path.
+ *
+ * A packet fires a zone when the stretch it covered this tick overlaps
+ * [s − radius, s + radius] – a binary search instead of a distance test per
+ * point, and a fast packet can no longer jump over a zone between ticks.
+ *
+ * Positions are measured on the wire's smoothed path; the snapped points are
+ * kept so the positions can be re-measured after the wire's geometry changes.
+ * Zones are added from the EDT and tested on the sim thread, hence the locks;
+ * expiry is a {@link TimerWheel} callback into {@link #remove}.
+ */
+final class EffectZones {
+    private final float radius;
+    private float[] pos    = new float[4];        // sorted arc-lengths
+    private Point[] at     = new Point[4];
+    private int     n;
+    private int     measuredOn;                   // Line geometry version pos[] belongs to
+
+    EffectZones(float radius) { this.radius = radius; }
+
+    synchronized boolean isEmpty() { return n == 0; }
+
+    synchronized void add(Point snapped, ArcLengthTable table, int geometryVersion) {
+        remeasure(table, geometryVersion);
+        if (n == pos.length) {
+            pos = Arrays.copyOf(pos, n * 2);
+            at  = Arrays.copyOf(at,  n * 2);
+        }
+        float s = table.project(snapped.x, snapped.y);
+        int i = n;
+        while (i > 0 && pos[i - 1] > s) {                 // insertion keeps pos[] sorted
+            pos[i] = pos[i - 1]; at[i] = at[i - 1];
+            i--;
+        }
+        pos[i] = s; at[i] = snapped;
+        n++;
+    }
+
+    /** Drops the zone added for this exact point (identity); no-op if it is gone. */
+    synchronized void remove(Point snapped) {
+        for (int i = 0; i < n; i++) {
+            if (at[i] != snapped) continue;
+            java.lang.System.arraycopy(pos, i + 1, pos, i, n - i - 1);
+            java.lang.System.arraycopy(at,  i + 1, at,  i, n - i - 1);
+            at[--n] = null;
+            return;
+        }
+    }
+
+    /** Does the travelled stretch between arc-lengths {@code from} and {@code to} touch any zone? */
+    synchronized boolean crosses(float from, float to, ArcLengthTable table, int geometryVersion) {
+        if (n == 0) return false;
+        remeasure(table, geometryVersion);
+        float lo = Math.min(from, to) - radius, hi = Math.max(from, to) + radius;
+        // first zone at or past lo
+        int a = 0, b = n;
+        while (a < b) {
+            int mid = (a + b) >>> 1;
+            if (pos[mid] < lo) a = mid + 1; else b = mid;
+        }
+        return a < n && pos[a] <= hi;
+    }
+
+    // bends or ports moved since the positions were taken: project the points again
+    private void remeasure(ArcLengthTable table, int geometryVersion) {
+        if (measuredOn == geometryVersion) return;
+        measuredOn = geometryVersion;
+        for (int i = 0; i < n; i++) pos[i] = table.project(at[i].x, at[i].y);
+        // keep both arrays in step while sorting by position
+        for (int i = 1; i < n; i++) {
+            float s = pos[i]; Point p = at[i];
+            int j = i;
+            while (j > 0 && pos[j - 1] > s) {
+                pos[j] = pos[j - 1]; at[j] = at[j - 1];
+                j--;
+            }
+            pos[j] = s; at[j] = p;
+        }
+    }
+}
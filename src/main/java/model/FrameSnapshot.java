@@ -0,0 +1,243 @@
+package model;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the view draws for one finished tick, copied out on the sim
+ * thread and never changed afterwards:
+ *
+ *   ▸ HUD        – ready / launched, coins, total coins
+ *   ▸ scene      – system boxes, port centres and wire polylines, plus the
+ *                  scene version the view keys its static layer on; copied
+ *                  only when that version moved, otherwise shared with the
+ *                  previous frame
+ *   ▸ packets    – position now and at the previous tick, kind, colour id
+ *                  and glyph parameter
+ *   ▸ queues     – kind, colour and parameter of every queued packet, per system
+ *
+ * {@link SystemManager} builds one at the end of each update and swaps it
+ * into a volatile field; the EDT only ever reads the latest one. Neither
+ * side locks, and a slow repaint just skips frames. Nothing here refers to
+ * a live System, Port or Line, so the view can neither read half-updated
+ * model state nor write to it.
+ *
+ * The sim steps at its own rate, so the view draws each packet between its
+ * previous and current position by {@link #alpha}: how far wall-clock time
+ * has got through the tick since this frame was published. That runs the
+ * picture one tick behind, but motion stays smooth at the display rate
+ * whatever the sim rate or scheduler jitter.
+ */
+public final class FrameSnapshot {
+    public final long    tick;
+    public final int     sceneVersion;
+    public final boolean ready, launched;
+    public final int     coins, totalCoins;
+    public final Scene   scene;
+    public final long    publishedAt;             // System.nanoTime() at capture
+    public final long    stepNanos;               // real time one tick stands for
+
+    /* travelling packets, parallel arrays */
+    private final int    packetCount;
+    private final int[]  px, py;
+    private final int[]  ox, oy;                 // same packet one tick earlier
+    private final byte[] kind;
+    private final int[]  colour, param;
+
+    // a packet that moved faster than this (px per second of sim time) jumped –
+    // port hop, re-route – and drawing it slide across the screen would be wrong
+    private static final float MAX_GLIDE_SPEED = 4800f;
+
+    /* queued packets of scene system s are [queueStart[s], queueStart[s + 1]) */
+    private final int[]  queueStart;
+    private final byte[] qKind;
+    private final int[]  qColour, qParam;
+
+    private FrameSnapshot(SystemManager sm, int sceneVersion, long tick, FrameSnapshot previous) {
+        this.tick         = tick;
+        this.sceneVersion = sceneVersion;
+        this.ready        = sm.isReady();
+        this.launched     = sm.isLaunched();
+        this.coins        = sm.coinCount;
+        this.totalCoins   = sm.getTotalCoins();
+        this.scene        = (previous != null && previous.sceneVersion == sceneVersion)
+                ? previous.scene : new Scene(sm);
+
+        List<Packet> all = sm.allPackets;
+        int maxGlide = Math.round(MAX_GLIDE_SPEED * sm.getTickSeconds());
+        int n = 0;
+        px = new int[all.size()]; py = new int[all.size()];
+        ox = new int[all.size()]; oy = new int[all.size()];
+        kind = new byte[all.size()];
+        colour = new int[all.size()]; param = new int[all.size()];
+        for (Packet p : all) {
+            Point at = p.getPoint();
+            if (at == null) continue;
+            px[n] = at.x; py[n] = at.y;
+            boolean glides = p.shownTick == tick - 1
+                    && Math.abs(at.x - p.shownX) + Math.abs(at.y - p.shownY) <= maxGlide;
+            ox[n] = glides ? p.shownX : at.x;
+            oy[n] = glides ? p.shownY : at.y;
+            p.shownX = at.x; p.shownY = at.y; p.shownTick = tick;
+            kind[n]   = (byte) PacketKind.of(p).ordinal();
+            colour[n] = PacketKind.colourOf(p);
+            param[n]  = PacketKind.paramOf(p);
+            n++;
+        }
+        packetCount = n;
+
+        List<System> systems = scene.systems;
+        queueStart = new int[systems.size() + 1];
+        int q = 0;
+        for (int s = 0; s < systems.size(); s++) q += systems.get(s).getPackets().size();
+        qKind = new byte[q]; qColour = new int[q]; qParam = new int[q];
+        q = 0;
+        for (int s = 0; s < systems.size(); s++) {
+            queueStart[s] = q;
+            List<Packet> queue = systems.get(s).getPackets();
+            for (int i = 0; i < queue.size(); i++, q++) {
+                Packet p = queue.get(i);
+                qKind[q]   = (byte) PacketKind.of(p).ordinal();
+                qColour[q] = PacketKind.colourOf(p);
+                qParam[q]  = PacketKind.paramOf(p);
+            }
+        }
+        queueStart[systems.size()] = q;
+
+        this.stepNanos   = Math.max(1L, (long) (sm.getTickSeconds() * 1e9));
+        this.publishedAt = java.lang.System.nanoTime();
+    }
+
+    /**
+     * Sim thread only: copies the state left by the update that just finished,
+     * reusing {@code previous}'s scene if the version has not moved.
+     */
+    static FrameSnapshot capture(SystemManager sm, int sceneVersion, long tick, FrameSnapshot previous) {
+        return new FrameSnapshot(sm, sceneVersion, tick, previous);
+    }
+
+    /** Fraction of the next tick elapsed at {@code nanoTime}, in [0, 1]; 1 once the sim stalls. */
+    public float alpha(long nanoTime) {
+        float a = (float) (nanoTime - publishedAt) / stepNanos;
+        return a <= 0f ? 0f : Math.min(a, 1f);
+    }
+
+    /* ── packets ─────────────────────────────────────────────────── */
+    public int        packetCount()       { return packetCount; }
+    public int        x(int i)            { return px[i]; }
+    public int        y(int i)            { return py[i]; }
+    /** Position between the previous tick ({@code alpha} 0) and this one (1). */
+    public int        x(int i, float alpha) { return Math.round(ox[i] + (px[i] - ox[i]) * alpha); }
+    public int        y(int i, float alpha) { return Math.round(oy[i] + (py[i] - oy[i]) * alpha); }
+    public PacketKind kind(int i)         { return PacketKind.ofOrdinal(kind[i]); }
+    public int        colourId(int i)     { return colour[i]; }
+    public int        param(int i)        { return param[i]; }
+
+    /* ── queues, by scene system index ───────────────────────────── */
+    public int        queueLength(int s)         { return queueStart[s + 1] - queueStart[s]; }
+    public PacketKind queuedKind(int s, int j)   { return PacketKind.ofOrdinal(qKind[queueStart[s] + j]); }
+    public int        queuedColourId(int s, int j) { return qColour[queueStart[s] + j]; }
+    public int        queuedParam(int s, int j)  { return qParam[queueStart[s] + j]; }
+
+    /**
+     * The static layer: system boxes with their ports, and every wire's
+     * smoothed polyline, all as plain numbers. Systems keep the manager's
+     * order, which is also the index the queue accessors take.
+     */
+    public static final class Scene {
+        private static final int WIRE_SMOOTHNESS = 6;
+
+        final List<System> systems;              // capture side only, never handed out
+
+        /* systems, parallel arrays */
+        private final int[]    sx, sy;
+        private final String[] label;
+        private final List<Class<? extends System>> type;
+
+        /* ports of system s are [portStart[s], portStart[s + 1]), inputs first */
+        private final int[]     portStart;
+        private final int[]     portX, portY;
+        private final Type[]    portType;
+        private final boolean[] portInput;
+
+        /* points of wire w are [wireStart[w], wireStart[w + 1]) */
+        private final int[] wireStart;
+        private final int[] wx, wy;
+
+        private Scene(SystemManager sm) {
+            systems = List.copyOf(sm.getAllSystems());
+            int n = systems.size();
+            sx = new int[n]; sy = new int[n];
+            label = new String[n];
+            List<Class<? extends System>> types = new ArrayList<>(n);
+
+            int ports = 0;
+            for (System sys : systems) ports += sys.getInputPorts().size() + sys.getOutputPorts().size();
+            portStart = new int[n + 1];
+            portX = new int[ports]; portY = new int[ports];
+            portType = new Type[ports]; portInput = new boolean[ports];
+
+            int k = 0;
+            for (int s = 0; s < n; s++) {
+                System sys = systems.get(s);
+                Point loc = sys.getLocation();
+                sx[s] = loc.x; sy[s] = loc.y;
+                label[s] = sys.getClass().getSimpleName().replace("System", "");
+                types.add(sys.getClass());
+                portStart[s] = k;
+                for (Port p : sys.getInputPorts())  k = addPort(k, p, true);
+                for (Port p : sys.getOutputPorts()) k = addPort(k, p, false);
+            }
+            portStart[n] = k;
+            type = List.copyOf(types);
+
+            List<Line> lines = List.copyOf(sm.allLines);
+            List<List<Point>> paths = new ArrayList<>(lines.size());
+            int points = 0;
+            for (Line l : lines) {
+                List<Point> path = l.getPath(WIRE_SMOOTHNESS);
+                paths.add(path);
+                points += path.size();
+            }
+            wireStart = new int[lines.size() + 1];
+            wx = new int[points]; wy = new int[points];
+            k = 0;
+            for (int w = 0; w < paths.size(); w++) {
+                wireStart[w] = k;
+                for (Point pt : paths.get(w)) {
+                    wx[k] = pt.x; wy[k] = pt.y;
+                    k++;
+                }
+            }
+            wireStart[paths.size()] = k;
+        }
+
+        private int addPort(int k, Port p, boolean input) {
+            Point c = p.getCenter();
+            portX[k] = c.x; portY[k] = c.y;
+            portType[k] = p.getType();
+            portInput[k] = input;
+            return k + 1;
+        }
+
+        public int    systemCount()    { return sx.length; }
+        /** Top-left corner of the box. */
+        public int    systemX(int s)   { return sx[s]; }
+        public int    systemY(int s)   { return sy[s]; }
+        /** Class name without "System", as shown in the box. */
+        public String label(int s)     { return label[s]; }
+        public Class<? extends System> systemType(int s) { return type.get(s); }
+
+        public int     portCount(int s)          { return portStart[s + 1] - portStart[s]; }
+        public int     portX(int s, int j)       { return portX[portStart[s] + j]; }
+        public int     portY(int s, int j)       { return portY[portStart[s] + j]; }
+        public Type    portType(int s, int j)    { return portType[portStart[s] + j]; }
+        public boolean isInput(int s, int j)     { return portInput[portStart[s] + j]; }
+
+        public int wireCount()              { return wireStart.length - 1; }
+        public int wirePoints(int w)        { return wireStart[w + 1] - wireStart[w]; }
+        public int wireX(int w, int k)      { return wx[wireStart[w] + k]; }
+        public int wireY(int w, int k)      { return wy[wireStart[w] + k]; }
+    }
+}
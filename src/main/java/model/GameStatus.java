@@ -24,6 +24,9 @@ public class GameStatus {
     /** Access to the config loader/saver. */
     private final StatusConfigManager cfgMgr;
 
+    /** When false, commitWin() only updates memory (headless runs). */
+    private boolean autosave = true;
+
     // ----- lifecycle ---------------------------------------------------
 
     public GameStatus() {
@@ -60,6 +63,8 @@ public class GameStatus {
         cfgMgr.save(toConfig());
     }
 
+    public void setAutosave(boolean autosave) { this.autosave = autosave; }
+
     // ----- queries -----------------------------------------------------
 
     public int getTotalCoins() { return totalCoinCount; }
@@ -76,7 +81,7 @@ public class GameStatus {
 
     /** Adds coins to a level *and* to the global total. */
     public void addCoinsToLevel(String levelName, int coinsEarned) {
-        int previousCoins = coinsByLevel.get(levelName);
+        int previousCoins = coinsByLevel.getOrDefault(levelName, 0);
         if(previousCoins < coinsEarned) {
             coinsByLevel.put(levelName, coinsEarned);
             totalCoinCount += (coinsEarned-previousCoins);
@@ -96,7 +101,7 @@ public class GameStatus {
     public void commitWin(String levelName, int coinsEarned) {
         setLevelPassed(levelName, true);
         addCoinsToLevel(levelName, coinsEarned);
-        save();
+        if (autosave) save();
     }
     public int getTotalCoin() { return totalCoinCount; }
     public void setTotalCoin(int totalCoinCount) { this.totalCoinCount = totalCoinCount; }
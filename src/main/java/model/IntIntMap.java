@@ -0,0 +1,121 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map of primitive int → int (linear probing, power-of-two
+ * table, load ≤ 0.5). Deletes shift the following run back instead of
+ * leaving tombstones, so a map that churns through ids never degrades.
+ */
+final class IntIntMap {
+    static final int MISSING = -1;
+
+    private int[]     keys;
+    private int[]     vals;
+    private boolean[] used;
+    private int       mask;
+    private int       size;
+
+    IntIntMap() { this(64); }
+
+    IntIntMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+        keys = new int[cap];
+        vals = new int[cap];
+        used = new boolean[cap];
+        mask = cap - 1;
+    }
+
+    int size() { return size; }
+
+    /** Value stored for {@code k}, or {@link #MISSING}. */
+    int get(int k) {
+        int slot = mix(k) & mask;
+        while (used[slot]) {
+            if (keys[slot] == k) return vals[slot];
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /** @return the previous value, or {@link #MISSING} */
+    int put(int k, int v) {
+        int slot = mix(k) & mask;
+        while (used[slot]) {
+            if (keys[slot] == k) {
+                int old = vals[slot];
+                vals[slot] = v;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = k;
+        vals[slot] = v;
+        if (++size * 2 > keys.length) grow();
+        return MISSING;
+    }
+
+    /** @return the removed value, or {@link #MISSING} */
+    int remove(int k) {
+        int slot = mix(k) & mask;
+        while (used[slot]) {
+            if (keys[slot] == k) {
+                int old = vals[slot];
+                shiftBack(slot);
+                size--;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    void clear() {
+        if (size > 0) Arrays.fill(used, false);
+        size = 0;
+    }
+
+    // backward-shift delete: pull later entries of the probe run into the hole
+    private void shiftBack(int hole) {
+        int next = (hole + 1) & mask;
+        while (used[next]) {
+            int home = mix(keys[next]) & mask;
+            // entry may move into the hole only if its home is not inside (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                vals[hole] = vals[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+    }
+
+    private void grow() {
+        int[] oldK = keys, oldV = vals;
+        boolean[] oldU = used;
+        keys = new int[oldK.length * 2];
+        vals = new int[oldK.length * 2];
+        used = new boolean[oldK.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldK.length; i++) {
+            if (!oldU[i]) continue;
+            int slot = mix(oldK[i]) & mask;
+            while (used[slot]) slot = (slot + 1) & mask;
+            used[slot] = true;
+            keys[slot] = oldK[i];
+            vals[slot] = oldV[i];
+        }
+    }
+
+    // murmur3 fmix32 – packet ids are sequential, spread them over the table
+    private static int mix(int k) {
+        k ^= k >>> 16;
+        k *= 0x85ebca6b;
+        k ^= k >>> 13;
+        k *= 0xc2b2ae35;
+        k ^= k >>> 16;
+        return k;
+    }
+}
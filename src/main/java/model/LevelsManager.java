@@ -56,39 +56,11 @@ public class LevelsManager {
                     default -> new ReferenceSystem(loc, inputPorts, outputPorts, sm, sc.id());
                 };
 
-                // Create and collect InputPort instances at placeholder positions
-                // system top‐left corner
-                // System top‐left corner
-                int sysX = sc.position().x();
-                int sysY = sc.position().y();
-
-// System dimensions (must match your SystemView.WIDTH / HEIGHT)
-                int sysW = view.SystemView.WIDTH;
-                int sysH = view.SystemView.HEIGHT;
-
-// 1) INPUTS down the left edge
-                List<String> inNames = sc.inputPorts();
-                for (int i = 0; i < inNames.size(); i++) {
-                    // center x on left border
-                    int x = sysX;
-                    // evenly spaced along height
-                    int y = sysY + (i + 1) * sysH / (inNames.size() + 1);
-                    String inName = inNames.get(i);
-                    InputPort ip = makeInputPort(sys, new Point(x, y), inName);
-                    inputPorts.add(ip);
-                }
-
-// 2) OUTPUTS down the right edge
-                List<String> outNames = sc.outputPorts();
-                for (int i = 0; i < outNames.size(); i++) {
-                    // center x on right border
-                    int x = sysX + sysW;
-                    // same vertical spacing
-                    int y = sysY + (i + 1) * sysH / (outNames.size() + 1);
-                    String inName = outNames.get(i);
-                    OutputPort op = makeOutputPort(sys, new Point(x, y), inName);
-                    outputPorts.add(op);
-                }
+                // Ports start at the system's corner; addSystem lays them out on its edges
+                for (String inName : sc.inputPorts())
+                    inputPorts.add(makeInputPort(sys, new Point(loc), inName));
+                for (String outName : sc.outputPorts())
+                    outputPorts.add(makeOutputPort(sys, new Point(loc), outName));
 
                 // Register the system in its manager
                 sm.addSystem(sys);
@@ -108,8 +80,8 @@ public class LevelsManager {
                             default ->
                                     throw new IllegalArgumentException("Unknown packet type: " + pc.type());
                         };
+                        sm.addPacket(pkt);      // register first so the queue owner is recorded
                         sys.addPacket(pkt);
-                        sm.addPacket(pkt);
                         //new line, removed if fucked up:
                         sm.addToFirstCountPacket();
                     }
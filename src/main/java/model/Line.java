@@ -3,30 +3,39 @@ package model;
 import model.ports.InputPort;
 import model.ports.OutputPort;
 
-import javax.lang.model.type.ArrayType;
 import java.awt.*;
 import java.lang.System;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class Line {
     private OutputPort start;
     private InputPort end;
-    private boolean isOccupied;
-    private Packet movingPacket;
+    private boolean isOccupied;                         // not admitting: see refreshAdmission
+    // packets in flight, in admission order; at most one unless headway > 0
+    private final ArrayList<Packet> inFlight = new ArrayList<>(2);
+    private float headway;                              // px; 0 = one packet per wire
     private final ArrayList<BendPoint> bendPoints;
-    public final ArrayList<Point> accelerationZero = new ArrayList<>();
-    private final ArrayList<Long> azExpiry = new ArrayList<>();
-    public final ArrayList<Point> getBackToCenter = new ArrayList<>();
-    private final ArrayList<Long> gbcExpiry = new ArrayList<>();
+    /** Half-width of an effect zone along the wire, in px. */
+    public static final int EFFECT_RADIUS_PX = 10;
+    private static final int EFFECT_SMOOTHNESS = 6;     // zones are measured on the drawn path
+    private final EffectZones zeroAccel    = new EffectZones(EFFECT_RADIUS_PX);
+    private final EffectZones backToCenter = new EffectZones(EFFECT_RADIUS_PX);
 
-    private static final long DURATION_NANOS = 20_000_000_000L;
+    private static final float EFFECT_DURATION_S = 20f;
+
+    /* geometry cache – see getPath / invalidateGeometry */
+    private static final int CACHED_LEVELS = 7;         // smoothness 0..6; finer ones are built per call
+    private volatile AtomicReferenceArray<List<Point>>    pathCache = new AtomicReferenceArray<>(CACHED_LEVELS);
+    private volatile AtomicReferenceArray<ArcLengthTable> arcCache  = new AtomicReferenceArray<>(CACHED_LEVELS);
+    private volatile int geometryVersion;
     public Line(OutputPort start, InputPort end) {
         this.start = start;
         this.end = end;
         this.isOccupied = false;
-        this.movingPacket = null;
         this.bendPoints = new ArrayList<>(3);
     }
     public OutputPort getStart() {
@@ -35,20 +44,79 @@ public class Line {
     public InputPort getEnd() {
         return end;
     }
+    /** True while the wire cannot take another packet from its output port. */
     public boolean isOccupied() {
         return isOccupied;
     }
-    public void setMovingPacket(Packet movingPacket) {
-        this.movingPacket = movingPacket;
-        isOccupied = true;
-        movingPacket.isMoving = true;
+
+    /* ── pipelining ──────────────────────────────────────────────────
+     * With headway 0 a wire carries one packet and is occupied until it
+     * arrives. With headway h > 0 it admits the next packet as soon as the
+     * last one admitted is h px down the wire, so a long wire carries several
+     * packets at once. Every packet still advances, collides, fires effect
+     * zones and arrives on its own.
+     */
+    public float getHeadway() { return headway; }
+    public void  setHeadway(float px) {
+        headway = Math.max(0f, px);
+        refreshAdmission();
+    }
+
+    /** Admits {@code p} at the output end. */
+    public void setMovingPacket(Packet p) {
+        inFlight.add(p);
+        p.isMoving = true;
+        PacketRegistry reg = registry();
+        if (reg != null) reg.travellingOn(p, this);
+        refreshAdmission();
     }
-    public void removeMovingPacket() {
-        this.movingPacket = null;
-        isOccupied = false;
+    /** {@code p} arrived or was destroyed; ignored if it is not on this wire. */
+    public void removeMovingPacket(Packet p) {
+        int i = indexInFlight(p);
+        if (i < 0) return;
+        inFlight.remove(i);
+        PacketRegistry reg = registry();
+        if (reg != null) reg.leftLine(p, this);
+        refreshAdmission();
     }
-    public Packet getMovingPacket() {
-        return movingPacket;
+    public boolean carries(Packet p) { return indexInFlight(p) >= 0; }
+    /** Packets in flight, oldest first; read-only. */
+    public List<Packet> getMovingPackets() { return Collections.unmodifiableList(inFlight); }
+
+    /**
+     * Re-evaluates {@link #isOccupied()} and tells the start system when it
+     * flips. Called on admission, removal, and by the manager after the wire's
+     * packets advanced (the last one may have cleared the headway).
+     */
+    public void refreshAdmission() {
+        boolean blocked;
+        if (inFlight.isEmpty())  blocked = false;
+        else if (headway <= 0f)  blocked = true;
+        else {
+            Packet last = inFlight.get(inFlight.size() - 1);
+            blocked = last.getLine() == this && last.pathFraction() * (float) totalLength() < headway;
+        }
+        if (blocked == isOccupied) return;
+        isOccupied = blocked;
+        notifyStart();
+    }
+    private int indexInFlight(Packet p) {
+        for (int i = 0; i < inFlight.size(); i++) if (inFlight.get(i) == p) return i;
+        return -1;
+    }
+    // keeps the start-system's free-port mask in step with isOccupied
+    private void notifyStart() {
+        model.System sys = (start == null) ? null : start.getParentSystem();
+        if (sys != null) sys.lineStateChanged(this);
+    }
+    // the level's registry lives on the start-system's manager
+    private PacketRegistry registry() {
+        SystemManager mgr = manager();
+        return (mgr == null) ? null : mgr.registry();
+    }
+    private SystemManager manager() {
+        model.System sys = (start == null) ? null : start.getParentSystem();
+        return (sys == null) ? null : sys.getSystemManager();
     }
     public BendPoint addBendPoint(Point footA, Point middle, Point footB) {
 
@@ -97,10 +165,67 @@ public class Line {
         BendPoint bp = new BendPoint(footA, middle, footB);
         bendPoints.add(bp);
         bendPoints.sort(Comparator.comparingDouble(bpp -> projectionT(bpp.getMiddle())));
+        bp.attach(this);
+        invalidateGeometry();
         return bp;
     }
-    public void removeBendPoint(BendPoint bendPoint) {bendPoints.remove(bendPoint);}
-    public ArrayList<Point> getPath(int smoothness) {
+    public void removeBendPoint(BendPoint bendPoint) {
+        if (bendPoints.remove(bendPoint)) {
+            bendPoint.attach(null);
+            invalidateGeometry();
+        }
+    }
+
+    /**
+     * Flattened poly-line from output port to input port. Cached per
+     * smoothness level and shared by every caller, so the list is read-only;
+     * it is rebuilt only after {@link #invalidateGeometry()}. A result built
+     * while the geometry changed underneath is returned but never cached.
+     */
+    public List<Point> getPath(int smoothness) {
+        AtomicReferenceArray<List<Point>> cache = pathCache;   // read once: invalidation swaps the array
+        boolean cached = smoothness >= 0 && smoothness < CACHED_LEVELS;
+        List<Point> path = cached ? cache.get(smoothness) : null;
+        if (path != null) return path;
+
+        int version = geometryVersion;
+        path = Collections.unmodifiableList(buildPath(smoothness));
+        if (cached && geometryVersion == version) cache.compareAndSet(smoothness, null, path);
+        return path;
+    }
+
+    /**
+     * Cumulative arc-length table over {@code getPath(smoothness)}; cached and
+     * invalidated together with the path itself.
+     */
+    public ArcLengthTable getArcLengthTable(int smoothness) {
+        AtomicReferenceArray<ArcLengthTable> cache = arcCache;
+        boolean cached = smoothness >= 0 && smoothness < CACHED_LEVELS;
+        ArcLengthTable table = cached ? cache.get(smoothness) : null;
+        if (table != null) return table;
+
+        int version = geometryVersion;
+        table = new ArcLengthTable(getPath(smoothness));
+        if (cached && geometryVersion == version) cache.compareAndSet(smoothness, null, table);
+        return table;
+    }
+
+    /**
+     * Called whenever anything the path depends on changes: bends added or
+     * removed, a bend's middle dragged, or either port centre moved.
+     */
+    public void invalidateGeometry() {
+        geometryVersion++;
+        pathCache = new AtomicReferenceArray<>(CACHED_LEVELS);
+        arcCache  = new AtomicReferenceArray<>(CACHED_LEVELS);
+        SystemManager mgr = manager();
+        if (mgr != null) mgr.lineChanged(this);             // clearance is re-tested for this wire
+    }
+
+    /** Bumped on every geometry change; lets holders of derived data spot staleness. */
+    public int getGeometryVersion() { return geometryVersion; }
+
+    private ArrayList<Point> buildPath(int smoothness) {
         ArrayList<Point> path = new ArrayList<>();
 
         // 0) start at output-port centre
@@ -165,89 +290,136 @@ public class Line {
         double dy = a.y + t*vy - p.y;
         return Math.hypot(dx, dy);
     }
+    /**
+     * Px from {@code from} to {@code to} along this wire, positive when
+     * {@code to} is nearer the input port; infinity if either is elsewhere.
+     * Uses {@link Packet#pathFraction()}, which every packet keeps current.
+     */
     public float distanceAlong(Packet from, Packet to) {
         if (from.getLine() != this || to.getLine() != this) return Float.POSITIVE_INFINITY;
-
-        // fast path – if both packets keep their progress field up-to-date
-        float d = (to.getProgress() - from.getProgress()) *
-                (float) totalLength();          // may be negative
-        return Math.abs(d);
+        return (to.pathFraction() - from.pathFraction()) * (float) totalLength();
     }
 
     /** First packet strictly ahead of <code>me</code> (direction→output→input). */
-    public Packet closestAhead(Packet me, float sInSeg, int segIdx) {
-        return neighbour(me, sInSeg, segIdx, /*forward*/ true);
+    public Packet closestAhead(Packet me) {
+        int i = slotOf(me);
+        if (i < 0) return null;
+        float s = me.pathFraction();
+        for (int j = i + 1; j < occupants.size(); j++) {          // skips only ties
+            if (occupants.get(j).pathFraction() > s) return occupants.get(j);
+        }
+        return null;
     }
 
     /** First packet strictly behind <code>me</code> (direction→input→output). */
-    public Packet closestBehind(Packet me, float sInSeg, int segIdx) {
-        return neighbour(me, sInSeg, segIdx, /*forward*/ false);
+    public Packet closestBehind(Packet me) {
+        int i = slotOf(me);
+        if (i < 0) return null;
+        float s = me.pathFraction();
+        for (int j = i - 1; j >= 0; j--) {
+            if (occupants.get(j).pathFraction() < s) return occupants.get(j);
+        }
+        return null;
     }
 
-    /* ---------- internal ---------- */
-    private Packet neighbour(Packet me, float sInSeg, int segIdx, boolean fwd) {
-        Packet best = null;
-        float  bestDist = Float.POSITIVE_INFINITY;
+    /* ── occupancy ───────────────────────────────────────────────────
+     * Packets whose getLine() is this wire, ordered by pathFraction from the
+     * output port. Packet.setLine / beginTraversal report entry and exit;
+     * {@link #reorderOccupants} restores the order after they move.
+     * Each packet carries its own index, so a neighbour is one step away.
+     */
+    private final ArrayList<Packet> occupants = new ArrayList<>();
 
-        // global list lives on the start-system’s manager
-        List<Packet> all = start.getParentSystem()
-                .getSystemManager().allPackets;
+    /** Read-only, output end first. */
+    public List<Packet> getOccupants() { return Collections.unmodifiableList(occupants); }
 
-        for (Packet p : all) {
-            if (p == me || p.getLine() != this) continue;
+    void occupantEntered(Packet p) {
+        float s = p.pathFraction();
+        int a = 0, b = occupants.size();
+        while (a < b) {                                   // after any ties: arrival order
+            int mid = (a + b) >>> 1;
+            if (occupants.get(mid).pathFraction() <= s) a = mid + 1; else b = mid;
+        }
+        occupants.add(a, p);
+        renumber(a, occupants.size());
+    }
 
-            float dist = fwd
-                    ? distanceAlong(me, p)
-                    : distanceAlong(p , me);
+    void occupantLeft(Packet p) {
+        int i = slotOf(p);
+        if (i < 0) return;
+        occupants.remove(i);
+        p.occupantSlot = -1;
+        renumber(i, occupants.size());
+    }
 
-            if (dist > 0 && dist < bestDist) {
-                bestDist = dist;
-                best     = p;
+    /** Call after the occupants advanced; insertion sort, O(k) while the order holds. */
+    public void reorderOccupants() {
+        int k = occupants.size();
+        if (k < 2) return;
+        int firstMoved = k;
+        for (int i = 1; i < k; i++) {
+            Packet p = occupants.get(i);
+            float s = p.pathFraction();
+            int j = i;
+            while (j > 0 && occupants.get(j - 1).pathFraction() > s) {
+                occupants.set(j, occupants.get(j - 1));
+                j--;
+            }
+            if (j != i) {
+                occupants.set(j, p);
+                firstMoved = Math.min(firstMoved, j);
             }
         }
-        return best;
+        renumber(firstMoved, k);
+    }
+
+    private int slotOf(Packet p) {
+        int i = p.occupantSlot;
+        return (i >= 0 && i < occupants.size() && occupants.get(i) == p) ? i : -1;
+    }
+
+    private void renumber(int from, int to) {
+        for (int i = from; i < to; i++) occupants.get(i).occupantSlot = i;
     }
 
-    /* cache total length once per wire */
-    private double totalLenCache = -1;
     private double totalLength() {
-        if (totalLenCache < 0) {
-            List<Point> pts = getPath(0);
-            double sum = 0;
-            for (int i = 0; i < pts.size() - 1; i++)
-                sum += pts.get(i).distance(pts.get(i + 1));
-            totalLenCache = sum;
-        }
-        return totalLenCache;
+        return getArcLengthTable(0).length();
     }
 
     //new code remove if fucked up
     public void addChangeCenter(Point click) {
         Point at = closestPointOnPath(click);              // snap to wire
-        getBackToCenter.add(at);
-        gbcExpiry.add(System.nanoTime() + DURATION_NANOS);
-    }
-    /** call once per tick */
-    public void cullExpiredChangeCenters(long now) {
-        for (int i = getBackToCenter.size() - 1; i >= 0; i--) {
-            if (now >= gbcExpiry.get(i)) {
-                getBackToCenter.remove(i);
-                gbcExpiry.remove(i);
-            }
-        }
+        backToCenter.add(at, getArcLengthTable(EFFECT_SMOOTHNESS), geometryVersion);
+        expireLater(backToCenter, at);
     }
     public void addZeroAccelPoint(Point click) {
         Point at = closestPointOnPath(click); // snap to wire
-        accelerationZero.add(at);
-        azExpiry.add(System.nanoTime() + DURATION_NANOS);
-    }
-    public void cullExpiredZeroAccelPoints(long now) {
-        for (int i = accelerationZero.size() - 1; i >= 0; i--) {
-            if (now >= azExpiry.get(i)) {
-                accelerationZero.remove(i);
-                azExpiry.remove(i);
-            }
-        }
+        zeroAccel.add(at, getArcLengthTable(EFFECT_SMOOTHNESS), geometryVersion);
+        expireLater(zeroAccel, at);
+    }
+    // the zone is dropped by the manager's timer wheel; nothing polls for expiry
+    private void expireLater(EffectZones zones, Point at) {
+        SystemManager mgr = manager();
+        if (mgr != null) mgr.scheduleTimed(mgr.ticksFor(EFFECT_DURATION_S), () -> zones.remove(at));
+    }
+    public boolean hasEffects() { return !zeroAccel.isEmpty() || !backToCenter.isEmpty(); }
+
+    /**
+     * Fire the zones a packet passed while moving from {@code fromFraction} to
+     * {@code toFraction} of the wire (0 = output port, 1 = input port).
+     * Fractions let packets that march over a differently smoothed path
+     * share the zones measured on the drawn one.
+     */
+    public void applyEffects(Packet pkt, float fromFraction, float toFraction,
+                             TimerWheel timers, long suppressTicks) {
+        if (!hasEffects()) return;
+        ArcLengthTable table = getArcLengthTable(EFFECT_SMOOTHNESS);
+        float len = table.length();
+        float from = fromFraction * len, to = toFraction * len;
+        if (zeroAccel.crosses(from, to, table, geometryVersion))
+            pkt.suppressAccelerationFor(timers, suppressTicks);
+        if (backToCenter.crosses(from, to, table, geometryVersion))
+            pkt.resetCenterDrift();
     }
     public Point closestPointOnPath(Point click) {
         List<Point> pts = getPath(6);
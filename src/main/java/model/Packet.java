@@ -5,7 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 public abstract class Packet {
     public static float SPEED_SCALE = 12f;   ;
-    public static float dt=1f / 60f;
+    public static final float dt = 1f / 60f;   // default tick; a level's own is SystemManager.getTickSeconds
     private static int NEXT_ID = 0;
     private int id;
     private System system;
@@ -20,10 +20,15 @@ public abstract class Packet {
     protected static final float IMPACT_DRAG = 4.0f;// accumulated lateral offset;
     //
     protected float progress=0.1f;
+    protected final PathCursor cursor = new PathCursor();   // subclasses march with this
     protected float speed;
     protected float acceleration;
     private float accelResume;              // where to restore to
-    private long  accelSuppressedUntil = 0;
+    private TimerWheel.Timer accelRestore;  // pending while acceleration is suppressed
+    int occupantSlot = -1;                  // index in line's occupant list, kept by Line
+    int queueSlot = -1;                     // buffer index in its system's PacketQueue, kept by it
+    int  shownX, shownY;                    // position in the last FrameSnapshot, kept by it
+    long shownTick = -1;                    // tick of that snapshot
     protected Point point;
     protected boolean isMoving;
     protected boolean trojan;
@@ -39,7 +44,14 @@ public abstract class Packet {
     }
 
     public void setLine(Line line) {
-        this.line = line;
+        moveTo(line);
+    }
+    // every change of line goes through here so both lines' occupant lists stay exact
+    private void moveTo(Line l) {
+        if (line == l) return;
+        if (line != null) line.occupantLeft(this);
+        line = l;
+        if (l != null) l.occupantEntered(this);
     }
     public Line getLine() {return line;}
     public void isTrojan(){trojan=true;}
@@ -66,6 +78,13 @@ public abstract class Packet {
         );
     }
     public float getProgress()            { return progress; }
+
+    /** How far along its wire the packet is, 0 … 1, by its own path's arc-length. */
+    public float pathFraction() {
+        if (!cursor.isAttached()) return 0f;         // on no wire, or not moved on this one yet
+        float len = cursor.table().length();
+        return len == 0f ? 1f : cursor.distance() / len;
+    }
     public void  setProgress(float value) { progress = value; }
 
     public float getSpeed()               { return speed; }
@@ -75,56 +94,23 @@ public abstract class Packet {
 //    public void  setAcceleration(float a) { acceleration = a; }
 
 
-    public void advance(float dt) {
-        if (line == null) return;                 // not travelling
-        float v = speed + acceleration * dt;
-        float t = progress + v * dt;
-
-        List<Point> path = line.getPath(0);
-        if (t >= 1f) {
-            t = 1f;
-            line.removeMovingPacket();
-            line.getEnd().getParentSystem().receivePacket(this);
-            setSystem(line.getEnd().getParentSystem());
-        }
-        setSpeed(v);
-        setProgress(t);
-        this.setPoint(along(path, t));
-    }
-    // in Packet.java
-    protected Point along(List<Point> pts, float t) {
-        if (pts.size() < 2) return pts.get(0);
-
-        double total = 0;
-        double[] segLen = new double[pts.size() - 1];
-        for (int i = 0; i < segLen.length; i++) {
-            total += segLen[i] = pts.get(i).distance(pts.get(i + 1));
-        }
-        double goal = t * total, run = 0;
-        for (int i = 0; i < segLen.length; i++) {
-            if (run + segLen[i] >= goal) {
-                double localT = (goal - run) / segLen[i];
-                Point a = pts.get(i), b = pts.get(i + 1);
-                int x = (int) Math.round(a.x + localT * (b.x - a.x));
-                int y = (int) Math.round(a.y + localT * (b.y - a.y));
-                return new Point(x, y);
-            }
-            run += segLen[i];
-        }
-        return pts.get(pts.size() - 1);
-    }
-
-
+    /**
+     * One sim step along the current wire: march {@link #cursor} by the
+     * packet's own speed law, hand the packet to the end system once it runs
+     * past the end, otherwise update {@link #point}. No-op off a wire.
+     */
+    public abstract void advance(float dt);
 
     public void beginTraversal(Line l, Point startPos) {
-        line = l;
         isMoving = true;
         system   = null;
         progress = 0f;
-        // subclasses will override and clear their own cached paths
+        cursor.detach();
+        // subclasses will override and clear their own cached state
         resetPath();
 
         point = startPos;          // exact port centre
+        moveTo(l);                 // position is reset first: enters at the output end
     }
     protected void resetPath() {}
 
@@ -140,35 +126,33 @@ public abstract class Packet {
 
     /** If currently suppressed, we update the resume target instead. */
     public void setAcceleration(float a) {
-        if (accelSuppressedUntil != 0) {
+        if (isAccelerationSuppressed()) {
             accelResume = a;                // keep intent for when suppression ends
         } else {
             this.acceleration = a;
         }
     }
 
-    /** Apply "acceleration = 0" for `durationNanos`. Extends if already active. */
-    public void suppressAccelerationForNanos(long durationNanos) {
-        long now = java.lang.System.nanoTime();
-        if (accelSuppressedUntil == 0) {
-            accelResume = acceleration;     // first time: remember current accel
+    /** Apply "acceleration = 0" for {@code ticks} sim ticks. Extends if already active. */
+    public void suppressAccelerationFor(TimerWheel timers, long ticks) {
+        if (accelRestore == null) {
+            accelRestore = new TimerWheel.Timer(() -> this.acceleration = accelResume);
         }
-        long until = now + durationNanos;
-        if (until > accelSuppressedUntil) { // refresh/extend window
-            accelSuppressedUntil = until;
+        if (!accelRestore.isPending()) {
+            accelResume = acceleration;     // first time: remember current accel
+            timers.schedule(accelRestore, ticks);
+        } else if (timers.now() + ticks > accelRestore.deadline()) {
+            timers.schedule(accelRestore, ticks);   // refresh/extend window
         }
         this.acceleration = 0f;
     }
 
-    /** Call each frame to auto-restore when time is up. */
-    public void updateTimedEffects(long now) {
-        if (accelSuppressedUntil != 0 && now >= accelSuppressedUntil) {
-            this.acceleration = accelResume;
-            accelSuppressedUntil = 0;
-        }
+    /** Drops pending restores; the packet is leaving the level. */
+    public void cancelTimedEffects(TimerWheel timers) {
+        if (accelRestore != null) timers.cancel(accelRestore);
     }
 
-    public boolean isAccelerationSuppressed() { return accelSuppressedUntil != 0; }
+    public boolean isAccelerationSuppressed() { return accelRestore != null && accelRestore.isPending(); }
     public int     getNoise() { return noise; }
     public void incNoise() {
         if (noise < size) {
@@ -182,7 +166,7 @@ public abstract class Packet {
         } else {
             // last-resort fallback: detach safely to avoid leaked state
             if (line != null) {
-                line.removeMovingPacket();
+                line.removeMovingPacket(this);
                 setLine(null);
             }
             isMoving = false;
@@ -208,17 +192,36 @@ public abstract class Packet {
         }
         return null;
     }
-    public List<Point> hitMapLocal() {
-        int r = collisionRadius();
-        ArrayList<Point> pts = new ArrayList<>(8);
-        for (int i = 0; i < 8; i++) {
-            double a = i * Math.PI / 4.0; // 0,45,90,...
-            pts.add(new Point((int)Math.round(r * Math.cos(a)),
-                    (int)Math.round(r * Math.sin(a))));
+    /* ── hit polygon ───────────────────────────────────────────── */
+    /** Default shape: octagon of the default radius (8). */
+    private static final int[] DEFAULT_HIT_SHAPE = ring(8, 8, 0);
+
+    /**
+     * Local hit polygon as interleaved {x0, y0, x1, y1, …} offsets from the
+     * centre. Subclasses return a static array built once per class; callers
+     * must not modify it.
+     */
+    protected int[] hitShape() { return DEFAULT_HIT_SHAPE; }
+
+    /** n vertices on a circle of radius r, starting at startDeg, rounded to px. */
+    protected static int[] ring(int r, int n, double startDeg) {
+        int[] pts = new int[2 * n];
+        double a0 = Math.toRadians(startDeg), step = 2 * Math.PI / n;
+        for (int i = 0; i < n; i++) {
+            double a = a0 + i * step;
+            pts[2 * i]     = (int) Math.round(r * Math.cos(a));
+            pts[2 * i + 1] = (int) Math.round(r * Math.sin(a));
         }
         return pts;
     }
 
+    public List<Point> hitMapLocal() {
+        int[] local = hitShape();
+        ArrayList<Point> pts = new ArrayList<>(local.length / 2);
+        for (int i = 0; i < local.length; i += 2) pts.add(new Point(local[i], local[i + 1]));
+        return pts;
+    }
+
     /** Translate local hit points by current screen center. */
     public List<Point> hitMapWorld() {
         Point c = getScreenPosition();
@@ -231,10 +234,16 @@ public abstract class Packet {
         return 8;
     }
     public void applyImpactImpulse(Point impact, float strength) {
-        if (impact == null || this.point == null) return;
+        if (impact == null) return;
+        applyImpactImpulse(impact.x, impact.y, strength);
+    }
+
+    /** Same as above without a Point for the impact (collision hot path). */
+    public void applyImpactImpulse(int impactX, int impactY, float strength) {
+        if (this.point == null) return;
 
-        float dx = this.point.x - impact.x;
-        float dy = this.point.y - impact.y;
+        float dx = this.point.x - impactX;
+        float dy = this.point.y - impactY;
         float len = (float) Math.hypot(dx, dy);
         if (len < 1e-3f) { dx = 1f; dy = 0f; len = 1f; }
 
@@ -0,0 +1,48 @@
+package model;
+
+import model.packets.*;
+
+/**
+ * What a packet looks like on screen: its glyph, plus the colour id and the
+ * one integer (dot count, fragment index) that vary inside a glyph.
+ * Lets a {@link FrameSnapshot} describe packets without holding them.
+ */
+public enum PacketKind {
+    INFINITY, SQUARE, TRIANGLE, BIG, BIT, PROTECTED, SECRET1, SECRET2, OTHER;
+
+    private static final PacketKind[] VALUES = values();
+
+    public static PacketKind of(Packet p) {
+        return switch (p) {              // first match wins, as in the old drawPacket
+            case InfinityPacket ignore    -> INFINITY;
+            case SquarePacket ignore      -> SQUARE;
+            case TrianglePacket ignore    -> TRIANGLE;
+            case BigPacket ignore         -> BIG;
+            case BitPacket ignore         -> BIT;
+            case ProtectedPacket<?> ignore -> PROTECTED;
+            case SecretPacket1 ignore     -> SECRET1;
+            case SecretPacket2<?> ignore  -> SECRET2;
+            default                       -> OTHER;
+        };
+    }
+
+    static PacketKind ofOrdinal(int ordinal) { return VALUES[ordinal]; }
+
+    /** Colour id of a big packet or one of its bits; 0 otherwise. */
+    public static int colourOf(Packet p) {
+        return switch (p) {
+            case BigPacket big -> big.getColorId();
+            case BitPacket bit -> bit.getColorId();
+            default -> 0;
+        };
+    }
+
+    /** Dot count of a big packet, fragment index of a bit; 0 otherwise. */
+    public static int paramOf(Packet p) {
+        return switch (p) {
+            case BigPacket big -> big.getSize();
+            case BitPacket bit -> bit.getFragmentIdx();
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,178 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * A system's packet queue: growable ring buffer, FIFO at the head.
+ *
+ *   ▸ addLast / removeFirst / peekFirst – O(1)
+ *   ▸ get / set                         – O(1)
+ *   ▸ remove(i)                         – shifts the shorter side, O(min(i, n − i))
+ *   ▸ indexOf / remove(packet)          – O(1) lookup through the packet's own
+ *                                         buffer slot, then remove(i)
+ *
+ * Every packet in the buffer knows its slot ({@code Packet.queueSlot}); the
+ * shifts that move packets already touch each one, so keeping it costs
+ * nothing extra. A packet sits in at most one queue at a time.
+ *
+ * Replaces the {@code ArrayList} whose {@code remove(get(0))} searched and
+ * then shifted the whole queue on every send. {@link #view()} is the
+ * read-only list handed out by {@link System#getPackets()}.
+ */
+public final class PacketQueue extends AbstractList<Packet> implements RandomAccess {
+    private Packet[] buf;
+    private int head;                  // index of element 0
+    private int size;
+    private final List<Packet> view = Collections.unmodifiableList(this);
+    private Runnable onChange;         // owner's hook, run after every mutation
+
+    public PacketQueue() { this(8); }
+
+    public PacketQueue(int capacity) {
+        buf = new Packet[Integer.highestOneBit(Math.max(4, capacity) - 1) << 1];
+    }
+
+    public List<Packet> view() { return view; }
+
+    /** {@code r} runs after every add, remove or set; one listener. */
+    void onChange(Runnable r) { onChange = r; }
+
+    @Override public int size() { return size; }
+
+    @Override public Packet get(int i) {
+        checkIndex(i);
+        return buf[slot(i)];
+    }
+
+    @Override public Packet set(int i, Packet p) {
+        checkIndex(i);
+        int s = slot(i);
+        Packet old = buf[s];
+        old.queueSlot = -1;
+        put(s, p);
+        if (onChange != null) onChange.run();
+        return old;
+    }
+
+    @Override public boolean add(Packet p) {
+        addLast(p);
+        return true;
+    }
+
+    @Override public void add(int i, Packet p) {
+        if (i == size) { addLast(p); return; }
+        if (i < 0 || i > size) throw new IndexOutOfBoundsException(i);
+        if (size == buf.length) grow();
+        if (i < size / 2) {                                   // open the gap towards the head
+            head = (head - 1) & mask();
+            for (int k = 0; k < i; k++) put(slot(k), buf[slot(k + 1)]);
+        } else {
+            for (int k = size; k > i; k--) put(slot(k), buf[slot(k - 1)]);
+        }
+        put(slot(i), p);
+        size++;
+        changed();
+    }
+
+    public void addLast(Packet p) {
+        if (size == buf.length) grow();
+        put(slot(size), p);
+        size++;
+        changed();
+    }
+
+    /** Head of the queue, or null when empty. */
+    public Packet peekFirst() {
+        return size == 0 ? null : buf[head];
+    }
+
+    @Override public Packet removeFirst() {
+        if (size == 0) throw new NoSuchElementException();
+        Packet p = buf[head];
+        buf[head] = null;
+        p.queueSlot = -1;
+        head = (head + 1) & mask();
+        size--;
+        changed();
+        return p;
+    }
+
+    @Override public Packet remove(int i) {
+        checkIndex(i);
+        if (i == 0) return removeFirst();
+        Packet p = buf[slot(i)];
+        p.queueSlot = -1;
+        if (i < size / 2) {                                   // close the gap from the head side
+            for (int k = i; k > 0; k--) put(slot(k), buf[slot(k - 1)]);
+            buf[head] = null;
+            head = (head + 1) & mask();
+        } else {
+            for (int k = i; k < size - 1; k++) put(slot(k), buf[slot(k + 1)]);
+            buf[slot(size - 1)] = null;
+        }
+        size--;
+        changed();
+        return p;
+    }
+
+    /** Removes this exact instance; identity, not equals. */
+    @Override public boolean remove(Object o) {
+        int i = indexOf(o);
+        if (i < 0) return false;
+        remove(i);
+        return true;
+    }
+
+    /** Position of this exact instance, read off its slot; -1 if it is not queued here. */
+    @Override public int indexOf(Object o) {
+        if (!(o instanceof Packet p)) return -1;
+        int s = p.queueSlot;
+        return (s >= 0 && s < buf.length && buf[s] == p) ? (s - head) & mask() : -1;
+    }
+
+    @Override public int lastIndexOf(Object o) { return indexOf(o); }
+
+    @Override public boolean contains(Object o) { return indexOf(o) >= 0; }
+
+    @Override public void clear() {
+        for (int i = 0; i < size; i++) buf[slot(i)].queueSlot = -1;
+        Arrays.fill(buf, null);
+        head = 0;
+        size = 0;
+        changed();
+    }
+
+    private void changed() {
+        modCount++;
+        if (onChange != null) onChange.run();
+    }
+
+    private void put(int s, Packet p) {
+        buf[s] = p;
+        p.queueSlot = s;
+    }
+
+    private int mask()      { return buf.length - 1; }
+    private int slot(int i) { return (head + i) & mask(); }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+    }
+
+    // unroll into a buffer twice the size, head back at 0
+    private void grow() {
+        Packet[] next = new Packet[buf.length * 2];
+        for (int i = 0; i < size; i++) {
+            Packet p = buf[slot(i)];
+            next[i] = p;
+            p.queueSlot = i;
+        }
+        buf  = next;
+        head = 0;
+    }
+}
@@ -0,0 +1,121 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Every live packet of one level, indexed three ways:
+ *
+ *   ▸ dense storage  – {@link #packets()}; removal swaps the last packet into
+ *                      the hole, so the list never shifts
+ *   ▸ id → slot      – primitive {@link IntIntMap}; ids are released on removal
+ *   ▸ slot → owner   – the system whose queue holds the packet, or the line it
+ *                      is travelling on (at most one of the two)
+ *
+ * Add, remove, lookup and owner changes are all O(1). Owners are reported by
+ * {@link System#addPacket} and {@link Line#setMovingPacket}; calls for packets
+ * that are not registered are ignored.
+ */
+final class PacketRegistry {
+    private final ArrayList<Packet> packets = new ArrayList<>();
+    private final IntIntMap slotOf = new IntIntMap();
+    private System[] systemOwner = new System[64];
+    private Line[]   lineOwner   = new Line[64];
+
+    /** Dense list of live packets; order is unspecified and changes on removal. */
+    ArrayList<Packet> packets() { return packets; }
+
+    int     size()                 { return packets.size(); }
+    boolean contains(Packet p)     { return slot(p) >= 0; }
+
+    Packet byId(int id) {
+        int s = slotOf.get(id);
+        return s == IntIntMap.MISSING ? null : packets.get(s);
+    }
+
+    /** @return false if a packet with the same id is already registered */
+    boolean add(Packet p) {
+        if (slotOf.get(p.getId()) != IntIntMap.MISSING) return false;
+        int s = packets.size();
+        slotOf.put(p.getId(), s);
+        packets.add(p);
+        if (s == systemOwner.length) {
+            systemOwner = Arrays.copyOf(systemOwner, s * 2);
+            lineOwner   = Arrays.copyOf(lineOwner,   s * 2);
+        }
+        systemOwner[s] = null;
+        lineOwner[s]   = null;
+        return true;
+    }
+
+    /**
+     * Drops {@code p} and releases its id. Read the owner through
+     * {@link #systemOf}/{@link #lineOf} <em>before</em> calling this.
+     *
+     * @return false if {@code p} was not registered
+     */
+    boolean remove(Packet p) {
+        int s = slot(p);
+        if (s < 0) return false;
+        slotOf.remove(p.getId());
+
+        int last = packets.size() - 1;
+        if (s != last) {
+            Packet moved = packets.get(last);
+            packets.set(s, moved);
+            systemOwner[s] = systemOwner[last];
+            lineOwner[s]   = lineOwner[last];
+            slotOf.put(moved.getId(), s);
+        }
+        packets.remove(last);
+        systemOwner[last] = null;
+        lineOwner[last]   = null;
+        return true;
+    }
+
+    /** Puts {@code replacement} in the slot of {@code old}; the owner carries over. */
+    boolean replace(Packet old, Packet replacement) {
+        int s = slot(old);
+        if (s < 0 || slotOf.get(replacement.getId()) != IntIntMap.MISSING) return false;
+        slotOf.remove(old.getId());
+        slotOf.put(replacement.getId(), s);
+        packets.set(s, replacement);
+        return true;
+    }
+
+    /* ── ownership ──────────────────────────────────────────────── */
+    System systemOf(Packet p) { int s = slot(p); return s < 0 ? null : systemOwner[s]; }
+    Line   lineOf(Packet p)   { int s = slot(p); return s < 0 ? null : lineOwner[s]; }
+
+    void queuedIn(Packet p, System sys) {
+        int s = slot(p);
+        if (s < 0) return;
+        systemOwner[s] = sys;
+        lineOwner[s]   = null;
+    }
+
+    void travellingOn(Packet p, Line line) {
+        int s = slot(p);
+        if (s < 0) return;
+        systemOwner[s] = null;
+        lineOwner[s]   = line;
+    }
+
+    /** Clears the owner only if it is still {@code sys} / {@code line}. */
+    void leftSystem(Packet p, System sys) {
+        int s = slot(p);
+        if (s >= 0 && systemOwner[s] == sys) systemOwner[s] = null;
+    }
+
+    void leftLine(Packet p, Line line) {
+        int s = slot(p);
+        if (s >= 0 && lineOwner[s] == line) lineOwner[s] = null;
+    }
+
+    // slot of this exact instance, or -1 (an id may be reused by a stale reference)
+    private int slot(Packet p) {
+        if (p == null) return -1;
+        int s = slotOf.get(p.getId());
+        return (s != IntIntMap.MISSING && packets.get(s) == p) ? s : -1;
+    }
+}
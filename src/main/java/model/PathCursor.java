@@ -0,0 +1,103 @@
+package model;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+
+/**
+ * A packet's position on a wire: segment index + offset inside it, marched
+ * over the wire's shared {@link ArcLengthTable}.
+ *
+ * Replaces the per-packet copies of the path and boxed {@code List<Float>}
+ * segment lengths. Marching never allocates; only {@link #basePoint()}
+ * hands out a fresh Point, because packets keep it as their drift anchor.
+ *
+ * Past the last segment the cursor is {@link #pastEnd()}; marching backwards
+ * off the first vertex leaves it {@link #beforeStart()}.
+ */
+public final class PathCursor {
+    private ArcLengthTable table;
+    private int   segIdx;
+    private float sInSeg;
+
+    /** Start at the first vertex of {@code table}. */
+    public void attach(ArcLengthTable table) {
+        this.table = table;
+        segIdx = 0;
+        sInSeg = 0f;
+    }
+
+    public void detach() {
+        table  = null;
+        segIdx = 0;
+        sInSeg = 0f;
+    }
+
+    public boolean        isAttached()  { return table != null; }
+    public ArcLengthTable table()       { return table; }
+    public int            segment()     { return segIdx; }
+    public float          offset()      { return sInSeg; }
+
+    /** Path has no segment at all (both ports on the same spot). */
+    public boolean isDegenerate() { return table.segmentCount() == 0; }
+    public boolean pastEnd()      { return segIdx >= table.segmentCount(); }
+    public boolean beforeStart()  { return segIdx < 0; }
+    public boolean onWire()       { return segIdx >= 0 && segIdx < table.segmentCount(); }
+
+    /** Arc-length from the start of the path. */
+    public float distance() {
+        if (segIdx < 0) return 0f;
+        if (segIdx >= table.segmentCount()) return table.length();
+        return table.distanceTo(segIdx) + sInSeg;
+    }
+
+    /** Forward-only march: non-positive {@code ds} leaves the cursor where it is. */
+    public float forward(float ds) {
+        return ds > 0f ? march(ds) : 0f;
+    }
+
+    /**
+     * Move {@code ds} px along the path (negative = towards the start).
+     * Stops at either end; returns the distance actually covered (always ≥ 0).
+     */
+    public float march(float ds) {
+        int   segs  = table.segmentCount();
+        float moved = 0f;
+
+        while (ds > 0f && segIdx < segs) {
+            float segRemain = table.segmentLength(segIdx) - sInSeg;
+            if (ds < segRemain) { sInSeg += ds; moved += ds; ds = 0f; }
+            else { ds -= segRemain; moved += segRemain; segIdx++; sInSeg = 0f; }
+        }
+        while (ds < 0f && segIdx >= 0) {
+            if (segIdx >= segs) { segIdx = segs - 1; sInSeg = table.segmentLength(segIdx); }
+            float stepBack = Math.min(-ds, sInSeg);
+            sInSeg -= stepBack; ds += stepBack; moved += stepBack;
+            if (sInSeg == 0f && ds < 0f) {
+                if (segIdx == 0) { segIdx = -1; break; }      // backed off the output port
+                segIdx--;
+                sInSeg = table.segmentLength(segIdx);
+            }
+        }
+        return moved;
+    }
+
+    /** On-wire point under the cursor, rounded to pixels. Only valid while {@link #onWire()}. */
+    public Point basePoint() {
+        float len = table.segmentLength(segIdx);
+        float t   = (len == 0f) ? 0f : (sInSeg / len);
+        float ax  = table.x(segIdx), ay = table.y(segIdx);
+        return new Point(
+                Math.round(ax + (table.x(segIdx + 1) - ax) * t),
+                Math.round(ay + (table.y(segIdx + 1) - ay) * t));
+    }
+
+    /** First vertex of the path (the output-port centre) as a fresh Point. */
+    public Point startPoint() {
+        return new Point(Math.round(table.x(0)), Math.round(table.y(0)));
+    }
+
+    /** Unit direction of the current segment. Only valid while {@link #onWire()}. */
+    public Point2D.Float tangent(Point2D.Float dst) {
+        return table.segmentTangent(segIdx, dst);
+    }
+}
@@ -5,6 +5,7 @@ import java.awt.*;
 import model.systems.*;
 import model.System;
 import java.util.List;
+import java.util.Objects;
 
 public abstract class Port {
     protected Type type;
@@ -12,14 +13,22 @@ public abstract class Port {
     protected Point place;
     protected Line line;
     private static final int HIT_RADIUS = 12;
+    int routeSlot = -1;                 // bit index in the parent's routing masks (output ports only)
     public Port(System system, Point point) {
         parentSystem = system;
         place = point;
     }
-    public void setCenter(Point point) {place = point;}
+    public void setCenter(Point point) {
+        if (Objects.equals(place, point)) return;    // re-laying out an unmoved box is free
+        place = point;
+        if (line != null) line.invalidateGeometry();
+    }
     public Point getCenter() {return place;}
     public Type getType() {return type;}
-    public void setLine(Line line) {this.line = line;}
+    public void setLine(Line line) {
+        this.line = line;
+        if (parentSystem != null) parentSystem.invalidateRouting();
+    }
     public Line getLine() {return line;}
     public System getParentSystem() {return parentSystem;}
     public boolean contains(Point testPoint) {
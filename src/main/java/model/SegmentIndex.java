@@ -0,0 +1,174 @@
+package model;
+
+import model.physics.SpatialHashGrid;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Uniform grid over the segments of every wire, flattened at one smoothness
+ * level. Answers "which wires come within r of this point" by looking at the
+ * few cells around the point instead of walking every segment of every wire.
+ *
+ *   ▸ each segment is filed under the cells its bounding box covers
+ *     (a {@link SpatialHashGrid} keyed by segment slot)
+ *   ▸ {@link #changed} only marks a wire; it is re-flattened and re-filed on
+ *     the next query, so dragging a bend costs nothing until someone asks
+ *
+ * Wires are edited on the EDT and queried from both the EDT (picking) and the
+ * sim thread (clearance), so every method is synchronized.
+ */
+public final class SegmentIndex {
+    private static final int   CELL = 64;
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final int smoothness;
+    private final SpatialHashGrid grid = new SpatialHashGrid(CELL);
+
+    /* segment table; a slot is also the segment's id in the grid */
+    private float[] ax = new float[64], ay = new float[64];
+    private float[] bx = new float[64], by = new float[64];
+    private Line[]  owner = new Line[64];
+    private int[]   freeSlots = new int[16];
+    private int     freeCount;
+    private int     slotTop;
+
+    private final IdentityHashMap<Line, int[]> slotsOf = new IdentityHashMap<>();
+    private final Set<Line> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public SegmentIndex(int smoothness) { this.smoothness = smoothness; }
+
+    /* ── wire lifecycle ──────────────────────────────────────────── */
+    public synchronized void add(Line l) {
+        slotsOf.putIfAbsent(l, NO_SLOTS);
+        dirty.add(l);
+    }
+
+    public synchronized void remove(Line l) {
+        int[] slots = slotsOf.remove(l);
+        if (slots != null) release(slots);
+        dirty.remove(l);
+    }
+
+    /** Geometry of an indexed wire changed; ignored for wires never added. */
+    public synchronized void changed(Line l) {
+        if (slotsOf.containsKey(l)) dirty.add(l);
+    }
+
+    /* ── queries ─────────────────────────────────────────────────── */
+
+    /** Wire whose segment lies closest to (x, y), if that distance is ≤ r; else null. */
+    public synchronized Line nearest(int x, int y, double r) {
+        flush();
+        Line best = null;
+        double bestD = r;
+        for (int cx = lo(x, r), maxCx = hi(x, r); cx <= maxCx; cx++) {
+            for (int cy = lo(y, r), maxCy = hi(y, r); cy <= maxCy; cy++) {
+                int c = grid.cellAt(cx, cy);
+                if (c < 0) continue;
+                int[] items = grid.items(c);
+                for (int i = 0, n = grid.count(c); i < n; i++) {
+                    int s = grid.payload(items[i]);
+                    double d = distance(s, x, y);
+                    if (d <= bestD) { bestD = d; best = owner[s]; }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Does wire {@code l} pass strictly closer than r to (x, y)? */
+    public synchronized boolean within(Line l, int x, int y, double r) {
+        flush();
+        for (int cx = lo(x, r), maxCx = hi(x, r); cx <= maxCx; cx++) {
+            for (int cy = lo(y, r), maxCy = hi(y, r); cy <= maxCy; cy++) {
+                int c = grid.cellAt(cx, cy);
+                if (c < 0) continue;
+                int[] items = grid.items(c);
+                for (int i = 0, n = grid.count(c); i < n; i++) {
+                    int s = grid.payload(items[i]);
+                    if (owner[s] == l && distance(s, x, y) < r) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Adds every wire passing strictly closer than r to (x, y) to {@code out}. */
+    public synchronized void linesWithin(int x, int y, double r, Collection<Line> out) {
+        flush();
+        for (int cx = lo(x, r), maxCx = hi(x, r); cx <= maxCx; cx++) {
+            for (int cy = lo(y, r), maxCy = hi(y, r); cy <= maxCy; cy++) {
+                int c = grid.cellAt(cx, cy);
+                if (c < 0) continue;
+                int[] items = grid.items(c);
+                for (int i = 0, n = grid.count(c); i < n; i++) {
+                    int s = grid.payload(items[i]);
+                    if (distance(s, x, y) < r && !out.contains(owner[s])) out.add(owner[s]);
+                }
+            }
+        }
+    }
+
+    /* ── internals ───────────────────────────────────────────────── */
+
+    // re-flatten and re-file every wire marked since the last query
+    private void flush() {
+        if (dirty.isEmpty()) return;
+        for (Line l : dirty) {
+            release(slotsOf.get(l));
+            List<Point> pts = l.getPath(smoothness);
+            int n = Math.max(0, pts.size() - 1);
+            int[] slots = new int[n];
+            for (int i = 0; i < n; i++) {
+                Point a = pts.get(i), b = pts.get(i + 1);
+                int s = allocSlot();
+                ax[s] = a.x; ay[s] = a.y; bx[s] = b.x; by[s] = b.y;
+                owner[s] = l;
+                grid.putBox(s, Math.min(a.x, b.x), Math.min(a.y, b.y),
+                               Math.max(a.x, b.x), Math.max(a.y, b.y), s);
+                slots[i] = s;
+            }
+            slotsOf.put(l, slots);
+        }
+        dirty.clear();
+    }
+
+    private int allocSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (slotTop == owner.length) {
+            int cap = owner.length * 2;
+            ax = Arrays.copyOf(ax, cap); ay = Arrays.copyOf(ay, cap);
+            bx = Arrays.copyOf(bx, cap); by = Arrays.copyOf(by, cap);
+            owner = Arrays.copyOf(owner, cap);
+        }
+        return slotTop++;
+    }
+
+    private void release(int[] slots) {
+        for (int s : slots) {
+            grid.remove(s);
+            owner[s] = null;
+            if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            freeSlots[freeCount++] = s;
+        }
+    }
+
+    // first / last cell coordinate covering [v - r, v + r]
+    private static int lo(int v, double r) { return Math.floorDiv((int) Math.floor(v - r), CELL); }
+    private static int hi(int v, double r) { return Math.floorDiv((int) Math.ceil(v + r), CELL); }
+
+    // distance from (px, py) to segment s, clamped to its end points
+    private double distance(int s, int px, int py) {
+        double vx = bx[s] - ax[s], vy = by[s] - ay[s];
+        double wx = px - ax[s],    wy = py - ay[s];
+        double len2 = vx * vx + vy * vy;
+        double t = (len2 == 0) ? 0 : Math.max(0, Math.min(1, (vx * wx + vy * wy) / len2));
+        return Math.hypot(ax[s] + t * vx - px, ay[s] + t * vy - py);
+    }
+}
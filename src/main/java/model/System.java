@@ -6,23 +6,32 @@ import model.ports.OutputPort;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public abstract class System {
-    protected ArrayList<Packet> packets;
+    /** Box size in world pixels; GamePanel and the port layout both use it. */
+    public static final int WIDTH = 90, HEIGHT = 70;
+    protected final PacketQueue packets = new PacketQueue();
     protected List<InputPort> inputPorts;
     protected List<OutputPort> outputPorts;
     protected Point location;
     protected SystemManager systemManager;
     protected int id;
     protected int bigPacketCount;
+    boolean scheduled;                  // queued in SystemManager's ready set
+    int unwiredCounted;                 // this system's share of SystemManager.unwiredPorts
     public System(Point location, List<InputPort> inputPorts, List<OutputPort> outputPorts, SystemManager systemManager, int id) {
-        packets = new ArrayList<>();
         this.location = location;
         this.inputPorts = inputPorts;
         this.outputPorts = outputPorts;
         this.systemManager = systemManager;
         this.id = id;
+        packets.onChange(this::queueChanged);
+    }
+    // queue icons and the count are part of GamePanel's cached layer
+    private void queueChanged() {
+        if (systemManager != null) systemManager.sceneChanged();
     }
     public void handleBigPacketArrival(BigPacket bigPacket) {
         // 1) remove all existing packets
@@ -48,45 +57,135 @@ public abstract class System {
 
     public void addPacket(Packet packet) {
         packets.add(packet);
+        if (systemManager != null) {
+            systemManager.registry().queuedIn(packet, this);
+            systemManager.markReady(this);
+        }
     }
     public void removePacket(Packet packet) {
-        int id=packet.getId();
-        for(Packet p : packets) {
-            if(p.getId()==id) {
-                packets.remove(p);
-                break;
-            }
-        }
+        if (systemManager != null) systemManager.registry().leftSystem(packet, this);
+        if (packets.remove(packet) && systemManager != null)
+            systemManager.markReady(this);                 // a new head may be routable
     }
     public List<OutputPort> getOutputPorts() {return outputPorts;}
     public List<InputPort> getInputPorts() {return inputPorts;}
     public int countPackets() {
         return packets.size();
     }
-    public ArrayList<Packet> getPackets() {return packets;}
+    /** Read-only view of the queue, head first. */
+    public List<Packet> getPackets() {return packets.view();}
     public abstract void sendPacket();
     public abstract void receivePacket(Packet packet);
 
     public boolean isCompatible(Packet p, OutputPort op) {
-        if (p instanceof ProtectedPacket
-                || p instanceof SecretPacket1
-                || p instanceof SecretPacket2) {
+        if (isWildcard(p)) {
             return true;
         }
         return op.getType() == p.getType();
     }
+    // protected and secret packets may leave through any port
+    private static boolean isWildcard(Packet p) {
+        return p instanceof ProtectedPacket
+                || p instanceof SecretPacket1
+                || p instanceof SecretPacket2;
+    }
+
+    /* ── routing ─────────────────────────────────────────────────────
+     * Bit i of every mask stands for outputPorts.get(i).
+     *   ▸ compatibleByType – rebuilt when the wiring changes (Port.setLine)
+     *   ▸ freeMask         – wired ports whose line admits a packet; flipped
+     *                        by Line.refreshAdmission
+     * Picking a port is a bit-scan; nothing is allocated per send.
+     */
+    private final long[] compatibleByType = new long[Type.values().length];
+    private long allPortsMask;
+    private long freeMask;
+    private int  routedPorts = -1;      // outputPorts.size() the table was built for, -1 = stale
+
+    /** Output ports that accept {@code p} without a wrong-port penalty. */
+    public long compatiblePorts(Packet p) {
+        ensureRouting();
+        if (isWildcard(p)) return allPortsMask;
+        return p.getType() == null ? 0L : compatibleByType[p.getType().ordinal()];
+    }
+
+    public long incompatiblePorts(Packet p) {
+        return allPortsMask & ~compatiblePorts(p);
+    }
 
-    public OutputPort firstFreePort(ArrayList<OutputPort> ports) {
-        for (OutputPort op : ports) {
+    /** Lowest-index port in {@code candidates} whose line is wired and idle, or null. */
+    public OutputPort firstFreePort(long candidates) {
+        ensureRouting();
+        long free = candidates & freeMask;
+        return free == 0L ? null : outputPorts.get(Long.numberOfTrailingZeros(free));
+    }
+
+    /** Some wired output port has an idle line. */
+    public boolean hasIdleOutput() {
+        ensureRouting();
+        return freeMask != 0L;
+    }
+
+    /** A wire was attached to or detached from one of our ports. */
+    void invalidateRouting() {
+        routedPorts = -1;
+        if (systemManager != null) systemManager.wiringChanged(this);
+    }
+
+    /** {@code line} leaving one of our output ports became busy or idle. */
+    void lineStateChanged(Line line) {
+        if (!line.isOccupied() && !packets.isEmpty() && systemManager != null)
+            systemManager.markReady(this);
+        if (routedPorts < 0) return;                   // next rebuild reads it anyway
+        Port op = line.getStart();
+        int slot = op.routeSlot;
+        if (slot < 0 || slot >= routedPorts || op.getLine() != line) return;
+        if (line.isOccupied()) freeMask &= ~(1L << slot);
+        else                   freeMask |=   1L << slot;
+    }
+
+    private void ensureRouting() {
+        if (routedPorts == outputPorts.size()) return;
+        int n = outputPorts.size();
+        if (n > Long.SIZE)
+            throw new IllegalStateException("system " + id + " has " + n + " output ports, at most 64 supported");
+        Arrays.fill(compatibleByType, 0L);
+        allPortsMask = 0L;
+        freeMask     = 0L;
+        for (int i = 0; i < n; i++) {
+            OutputPort op = outputPorts.get(i);
+            long bit = 1L << i;
+            ((Port) op).routeSlot = i;      // package-private, so reach it through Port
+            allPortsMask |= bit;
+            if (op.getType() != null) compatibleByType[op.getType().ordinal()] |= bit;
             Line l = op.getLine();
-            if (l != null && !l.isOccupied()) {
-                return op;
-            }
+            if (l != null && !l.isOccupied()) freeMask |= bit;
         }
-        return null;
+        routedPorts = n;
     }
     public Point getLocation() {return location;}
-    public void setLocation(Point p) { this.location = p; }
+    /** Moves the box and its ports with it; wires re-route on their next path query. */
+    public void setLocation(Point p) {
+        boolean moved = !p.equals(location);
+        this.location = p;
+        if (!moved) return;
+        layoutPorts();
+        if (systemManager != null) systemManager.systemMoved(this);
+    }
+    /**
+     * Puts every port on the box edge: inputs down the left, outputs down the
+     * right, evenly spaced. The only place port centres are decided; called
+     * when the system is added to its manager and whenever it moves.
+     */
+    void layoutPorts() {
+        for (int i = 0, n = inputPorts.size(); i < n; i++)
+            inputPorts.get(i).setCenter(edgePoint(location.x, i, n));
+        for (int i = 0, n = outputPorts.size(); i < n; i++)
+            outputPorts.get(i).setCenter(edgePoint(location.x + WIDTH, i, n));
+    }
+    private Point edgePoint(int x, int i, int n) {
+        return new Point(x, location.y + (i + 1) * HEIGHT / (n + 1));
+    }
     public void addingCoin(Packet packet) {
         switch (packet) {
             case SquarePacket sp -> systemManager.addCoin(2);
@@ -4,8 +4,12 @@ import model.packets.BigPacket;
 import model.packets.BitPacket;
 import model.packets.ProtectedPacket;
 import model.packets.SecretPacket2;
+import model.physics.ImpactEvent;
+import model.physics.LongHashSet;
+import model.physics.PhysicsEngine;
 import model.ports.InputPort;
 import model.ports.OutputPort;
+import model.profiling.TickProfiler;
 import model.systems.AntiTrojanSystem;
 import model.systems.SpySystem;
 import model.systems.VpnSystem;
@@ -13,29 +17,55 @@ import model.systems.VpnSystem;
 import java.awt.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static model.Packet.dt;
 
 public class SystemManager {
     //new fields
-    private static final int EFFECT_RADIUS_PX = 10;
     private final Map<Integer, Integer> offwireFrames = new HashMap<>();
     private static final int   OFFWIRE_GRACE_FRAMES = 4;   // require N consecutive frames off-wire
     private static final float OFFWIRE_FACTOR       = 1.6f; // soften threshold: > 1.6*radius to count as “off”
     private static final int   PORT_SAFE_PX         = 18;
-    private Set<Long> activeContacts = new HashSet<>();
-    private static final int CELL = 32;
-
-    // cell hash map: key packs (cx, cy) into a long
-    private final Map<Long, ArrayList<Packet>> grid = new HashMap<>();
+    // pairs overlapping in the previous / current pass (ImpactEvent.pairKey)
+    private LongHashSet activeContacts = new LongHashSet();
+    private LongHashSet nextContacts   = new LongHashSet();
+    private int contactsBegun, contactsEnded;
+    private int lastCandidatePairs, lastImpactCount;
+    private final TickProfiler profiler = new TickProfiler();
+    private final PhysicsEngine physics = new PhysicsEngine();
+    private final ArrayList<Packet> collisionScratch = new ArrayList<>();   // moving packets, reused every pass
+    private int[] nearSlots = new int[16];                                 // neighbour query buffer
+    private final ArrayList<Packet> flightScratch = new ArrayList<>();     // one wire's packets, per step
     //
-    private static final long NANO_20S = 20_000_000_000L;
+    private static final float EFFECT_SECONDS = 20f;             // zero-acceleration window
     ArrayList<System> systems;
     ArrayList<SpySystem> spySystems;
     ArrayList<VpnSystem> vpnSystems;
+    ArrayList<AntiTrojanSystem> antiTrojanSystems;
+    // systems that may be able to send this tick – see markReady
+    private final ArrayDeque<System> readySystems = new ArrayDeque<>();
+    private volatile boolean wiringChanged = true;      // set from the EDT, consumed by the sim thread
+    // topology edits reported from any thread, folded into the readiness counters by the sim thread
+    private final ConcurrentLinkedQueue<System> changedSystems = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Line>   changedLines   = new ConcurrentLinkedQueue<>();
+    private int unwiredPorts;                                   // Σ System.unwiredCounted
+    private final IdentityHashMap<Line, ArrayList<System>> cutSystems = new IdentityHashMap<>();
+    private int clearanceViolations;                            // Σ cutSystems sizes
+    // wire segments bucketed by cell: clearance on the smoothed path, picking on the raw one
+    private final SegmentIndex clearanceIndex = new SegmentIndex(6);
+    private final SegmentIndex pickIndex      = new SegmentIndex(0);
+    // bumped by every change to what GamePanel caches (systems, ports, wires, queues)
+    private final AtomicInteger sceneVersion = new AtomicInteger();
+    // latest finished tick for the view; swapped whole, never mutated
+    private volatile FrameSnapshot frame;
+    private volatile boolean publishFrames;
     private final Random rng = new Random();
-    private final Set<Integer> packetIds = new HashSet<>();
-    public ArrayList<Packet> allPackets;
+    private final PacketRegistry registry = new PacketRegistry();
+    // everything time-limited, on sim ticks; other threads hand timers over through timerInbox
+    private final TimerWheel timers = new TimerWheel();
+    private final ConcurrentLinkedQueue<Runnable> timerInbox = new ConcurrentLinkedQueue<>();
+    public final ArrayList<Packet> allPackets = registry.packets();   // read-only outside PacketRegistry
     private static final int SAFE_RADIUS = 35;
     public ArrayList<Line> allLines;
     private HashMap<Integer, ArrayList<BitPacket>> bigPackets;
@@ -44,16 +74,19 @@ public class SystemManager {
     private boolean isLevelPassed;
     private int firstCountPacket;
     private int receivedPacket;
-    private static final float DT = dt;
     public int coinCount = 0;
     public static GameStatus gameStatus;
     private String levelName;          // NEW
     private boolean winCommitted = false;
+    private boolean levelOver = false;
+    private boolean enforceWireClearance = true;
+    private float wireHeadway;                           // see setWireHeadway
+    private volatile float tickSeconds = Packet.dt;      // see setTickSeconds
     public SystemManager(GameStatus gameStatus) {
         systems = new ArrayList<>();
         spySystems = new ArrayList<>();
         vpnSystems = new ArrayList<>();
-        allPackets = new ArrayList<>();
+        antiTrojanSystems = new ArrayList<>();
         allLines = new ArrayList<>();
         bigPackets = new HashMap<>();
         this.gameStatus = gameStatus;
@@ -61,13 +94,20 @@ public class SystemManager {
         winCommitted = gameStatus.isLevelPassed(levelName);
     }
     public void addSystem(System system) {
+        system.layoutPorts();
         systems.add(system);
+        sceneChanged();
         if (system instanceof SpySystem spy) {
             spySystems.add(spy);
         }
         if (system instanceof VpnSystem vpn) {
             vpnSystems.add(vpn);
         }
+        if (system instanceof AntiTrojanSystem at) {
+            antiTrojanSystems.add(at);
+        }
+        markReady(system);
+        changedSystems.add(system);
     }
     public void removeSystem(System system) {
         // safely remove all incident lines
@@ -77,16 +117,23 @@ public class SystemManager {
             boolean incident = system.getInputPorts().contains(line.getEnd())
                     || system.getOutputPorts().contains(line.getStart());
             if (incident) {
-                Packet mp = line.getMovingPacket();
-                if (mp != null) {
+                for (Packet mp : new ArrayList<>(line.getMovingPackets())) {
                     removePacket(mp);      // will also pull it out of any system queue
 //                    line.setMovingPacket(null);
                 }
                 it.remove();               // <- safe removal during iteration
+                unindex(line);
             }
         }
 
         systems.remove(system);
+        changedSystems.add(system);
+        sceneChanged();
+        if (system.scheduled) {
+            readySystems.remove(system);
+            system.scheduled = false;
+        }
+        if (system instanceof AntiTrojanSystem at) antiTrojanSystems.remove(at);
         if (system instanceof SpySystem spy) spySystems.remove(spy);
         if (system instanceof VpnSystem vpn) {
             vpnSystems.remove(vpn);
@@ -94,45 +141,74 @@ public class SystemManager {
         }
     }
     public void addPacket(Packet p) {
-        if (packetIds.add(p.getId())) {        // returns false if ID already present
-            allPackets.add(p);
+        if (registry.add(p)) {                 // false if the ID is already registered
             if (p instanceof BigPacket big)
                 bigPackets.put(big.getId(), big.split());
         }
     }
+    /** Drops the packet from the level, its owner's queue and the wire it occupies. */
     public void removePacket(Packet packet) {
-        allPackets.remove(packet);
-        for(System system : systems) {
-            if(system.getPackets().contains(packet)) {
-                system.removePacket(packet);
-            }
-        }
+        System owner = registry.systemOf(packet);
+        Line   line  = registry.lineOf(packet);
+        if (!registry.remove(packet)) return;
+        if (owner != null) owner.removePacket(packet);
+        if (line != null) line.removeMovingPacket(packet);
+        packet.cancelTimedEffects(timers);
+    }
+    public Packet getPacket(int id) { return registry.byId(id); }
+
+    /* ── routing schedule ────────────────────────────────────────────
+     * A system is visited only after something that could let it send:
+     *   ▸ it gained (or lost) a queued packet      – System.addPacket / removePacket
+     *   ▸ one of its output lines can admit again   – Line.refreshAdmission
+     *   ▸ any wire was attached or detached         – Port.setLine → wiringChanged
+     * After its sendPacket a system stays scheduled only while it still has
+     * packets and an idle output line, so blocked systems cost nothing.
+     */
+    void markReady(System sys) {
+        if (sys.scheduled) return;
+        sys.scheduled = true;
+        readySystems.add(sys);
     }
-    public void handleVpnDestruction(int vpnId) {
-        // 1) First unwrap in every system’s queue
-        for (System sys : systems) {
-            ListIterator<Packet> it = sys.getPackets().listIterator();
-            while (it.hasNext()) {
-                Packet p = it.next();
-                Packet inner = null;
-
-                if (p instanceof ProtectedPacket<?> prot && prot.getSystemId() == vpnId) {
-                    inner = prot.unwrap();
-                }
-                else if (p instanceof SecretPacket2<?> s2 && s2.getSystemId() == vpnId) {
-                    inner = s2.unwrap();
-                }
 
-                if (inner != null) {
-                    it.set(inner);
-                }
-            }
-        }
+    /** Wiring edits come from the EDT, so they only raise a flag and queue the system. */
+    void wiringChanged(System sys) {
+        wiringChanged = true;
+        changedSystems.add(sys);
+    }
 
-        // 2) Then unwrap in the global allPackets list
-        ListIterator<Packet> pit = allPackets.listIterator();
-        while (pit.hasNext()) {
-            Packet p = pit.next();
+    private void routeReadySystems() {
+        if (wiringChanged) {
+            wiringChanged = false;
+            for (System sys : systems) markReady(sys);
+        }
+        // systems scheduled while routing (e.g. a receiving spy) wait for the next tick
+        for (int n = readySystems.size(); n > 0; n--) {
+            System sys = readySystems.poll();
+            sys.scheduled = false;
+            if (sys.getPackets().isEmpty()) continue;
+            sys.sendPacket();
+            if (!sys.getPackets().isEmpty() && sys.hasIdleOutput()) markReady(sys);
+        }
+    }
+    PacketRegistry registry() { return registry; }
+
+    /* ── timed effects ─────────────────────────────────────────────── */
+    /** Sim-thread wheel; one tick per {@link #update}. */
+    public TimerWheel getTimers() { return timers; }
+    /** Sim time one {@link #update} stands for, in seconds; set before the level runs. */
+    public void setTickSeconds(float seconds) {tickSeconds = seconds;}
+    public float getTickSeconds() {return tickSeconds;}
+    /** Whole ticks covering {@code seconds} of sim time (at least 1). */
+    public long ticksFor(float seconds) { return Math.max(1L, (long) Math.ceil(seconds / tickSeconds)); }
+    /** Thread-safe: runs {@code action} on the sim thread {@code ticks} updates from the next one. */
+    public void scheduleTimed(long ticks, Runnable action) {
+        timerInbox.add(() -> timers.schedule(ticks, action));
+    }
+    public void handleVpnDestruction(int vpnId) {
+        // unwrap every packet this VPN protected, in place: same slot, same owner
+        for (int i = 0; i < allPackets.size(); i++) {
+            Packet p = allPackets.get(i);
             Packet inner = null;
 
             if (p instanceof ProtectedPacket<?> prot && prot.getSystemId() == vpnId) {
@@ -141,9 +217,14 @@ public class SystemManager {
             else if (p instanceof SecretPacket2<?> s2 && s2.getSystemId() == vpnId) {
                 inner = s2.unwrap();
             }
-
-            if (inner != null) {
-                pit.set(inner);
+            if (inner == null) continue;
+
+            System owner = registry.systemOf(p);
+            if (!registry.replace(p, inner)) continue;
+            if (owner != null) {
+                int at = owner.packets.indexOf(p);
+                if (at >= 0) owner.packets.set(at, inner);
+                markReady(owner);                  // the unwrapped head may route differently
             }
         }
     }
@@ -159,8 +240,45 @@ public class SystemManager {
     public HashMap<Integer, ArrayList<BitPacket>> getBigPackets() {
         return bigPackets;
     }
-    public void addLine(Line line) {allLines.add(line);}
-    public void removeLine(Line line) {allLines.remove(line);}
+    public void addLine(Line line) {
+        line.setHeadway(wireHeadway);
+        allLines.add(line);
+        clearanceIndex.add(line);
+        pickIndex.add(line);
+        changedLines.add(line);
+        sceneChanged();
+    }
+    public void removeLine(Line line) {
+        allLines.remove(line);
+        unindex(line);
+    }
+    private void unindex(Line line) {
+        clearanceIndex.remove(line);
+        pickIndex.remove(line);
+        changedLines.add(line);
+        sceneChanged();
+    }
+    /** A wire's path changed (bend edited, port moved). */
+    void lineChanged(Line line) {
+        clearanceIndex.changed(line);
+        pickIndex.changed(line);
+        changedLines.add(line);
+        sceneChanged();
+    }
+    /** Wire passing within {@code tol} px of {@code p} (closest one wins), or null. */
+    public Line lineAt(Point p, double tol) {return pickIndex.nearest(p.x, p.y, tol);}
+    /** A system moved; its centre has to be re-tested against every wire. */
+    void systemMoved(System sys) {changedSystems.add(sys); sceneChanged();}
+    /**
+     * Changes whenever systems, ports, wires or queue contents change; the
+     * view re-renders its static layer only when this moved. Any thread.
+     */
+    public int getSceneVersion() {return sceneVersion.get();}
+    void sceneChanged() {sceneVersion.incrementAndGet();}
+    /** Publish a {@link FrameSnapshot} after every update; off by default (headless runs need none). */
+    public void setPublishFrames(boolean on) {publishFrames = on;}
+    /** Latest published frame, or null before the first update with publishing on. Any thread. */
+    public FrameSnapshot getFrame() {return frame;}
     public boolean isReady() {return isReady;}
     public boolean isLaunched() {return launched;}
     public void launchPackets() { launched = true; }
@@ -169,384 +287,258 @@ public class SystemManager {
         if(receivedPacket>=(firstCountPacket/2)){
             isLevelPassed = true;
         }
-        long now = java.lang.System.nanoTime();
+        final TickProfiler prof = profiler;
+        final boolean timing = prof.isEnabled();
+        long t = timing ? prof.beginTick() : 0L;
+
+        for (Runnable r; (r = timerInbox.poll()) != null; ) r.run();
+        if (timing) t = prof.lap(TickProfiler.Phase.TIMED_EFFECTS, t);
         List<Line> lines = new ArrayList<>(allLines);
+        long effectTicks = ticksFor(EFFECT_SECONDS);
         for (Line l : lines) {
-            l.cullExpiredChangeCenters(now);
-            l.cullExpiredZeroAccelPoints(now);
-            Packet pkt = l.getMovingPacket();
-
-            if (pkt != null) {
-                Point pos = pkt.getScreenPosition();
-                if (pos != null && !l.accelerationZero.isEmpty()) {
-                    for (Point z : new ArrayList<>(l.accelerationZero)) {
-                        if (pos.distance(z) <= EFFECT_RADIUS_PX) {
-                            pkt.suppressAccelerationForNanos(NANO_20S);
-                            break;
-                        }
-                    }
-                }
+            List<Packet> moving = l.getMovingPackets();
+            if (moving.isEmpty()) continue;
+            // arrivals leave the wire mid-loop: walk a copy, oldest first
+            flightScratch.clear();
+            flightScratch.addAll(moving);
+            for (Packet pkt : flightScratch) {
+                if (!l.carries(pkt)) continue;                  // destroyed by an earlier packet's step
+                float from = pkt.pathFraction();
+                pkt.advance(dt);
 
-                if (pos != null && !l.getBackToCenter.isEmpty()) {
-                    // iterate over a snapshot of points as well (paranoid-safe)
-                    for (Point trigger : new ArrayList<>(l.getBackToCenter)) {
-                        if (pos.distance(trigger) <= EFFECT_RADIUS_PX) {
-                            pkt.resetCenterDrift();
-                            break;
-                        }
-                    }
+                // zones passed during this step; a packet that just arrived is off the wire
+                if (l.carries(pkt) && pkt.getLine() == l) {
+                    l.applyEffects(pkt, from, pkt.pathFraction(), timers, effectTicks);
                 }
-                pkt.advance(dt);
             }
+            l.reorderOccupants();
+            l.refreshAdmission();                               // the last one may have cleared the headway
         }
-        for (Packet p : new ArrayList<>(allPackets)) {
-            p.updateTimedEffects(now);
-        }
+        if (timing) t = prof.lap(TickProfiler.Phase.ADVANCE, t);
+        timers.advance();               // expiries due this tick, nothing else is visited
+        if (timing) t = prof.lap(TickProfiler.Phase.TIMED_EFFECTS, t);
+
         checkCollisions();
-        /* -------- 2: try to send from every fully-wired system -------- */
-        boolean everyPortWired =
-                systems.stream().allMatch(this::allOutputsConnected)
-                        && systems.stream().allMatch(this::allInputsConnected);
+        if (timing) t = prof.lap(TickProfiler.Phase.COLLISIONS, t);
 
-        boolean noWireCutsThroughSystem = wiringClearsSystemCentres();
-        isReady=noWireCutsThroughSystem && everyPortWired;
+        /* -------- 2: try to send from every fully-wired system -------- */
+        refreshReadiness();
+        isReady = unwiredPorts == 0 && (!enforceWireClearance || clearanceViolations == 0);
+        if (timing) t = prof.lap(TickProfiler.Phase.READINESS, t);
 
         if (launched && isReady) {
-            for (System sys : systems) {
-                if (!sys.getPackets().isEmpty()) {
-                    sys.sendPacket();
-                }
-                //remove this if problem
-                if(sys instanceof AntiTrojanSystem) {
-                    ((AntiTrojanSystem) sys).cleanTrojan();
-                }
+            routeReadySystems();
+            //remove this if problem
+            for (AntiTrojanSystem at : antiTrojanSystems) {
+                at.cleanTrojan();
             }
         }
+        if (timing) {
+            prof.lap(TickProfiler.Phase.ROUTING, t);
+            prof.endTick(collisionScratch.size(), lastCandidatePairs, lastImpactCount);
+        }
+        if (publishFrames) {
+            int version = sceneVersion.get();           // before copying: a later edit bumps past it
+            frame = FrameSnapshot.capture(this, version, timers.now(), frame);
+        }
         //new lines
+        if (levelOver) return;           // report the outcome once, not every tick
         if(isLevelPassed && allPackets.isEmpty()){
             java.lang.System.out.println("you win");
+            levelOver=true;
             winCommitted=true;
             gameStatus.commitWin(levelName, coinCount);
         }
         else if(!isLevelPassed && allPackets.isEmpty()){
             java.lang.System.out.println("you lose");
+            levelOver=true;
         }
         //
     }
-//    public void checkCollisions() {
-//        // 0) snapshot + filter to travelling packets that have a screen position
-//        final ArrayList<Packet> list = new ArrayList<>(allPackets);
-//        final ArrayList<Packet> moving = new ArrayList<>(list.size());
-//        for (Packet p : list) {
-//            if (p != null && p.isMoving && p.getLine() != null && p.getScreenPosition() != null) {
-//                moving.add(p);
-//            }
-//        }
-//        if (moving.size() < 2) return;
-//
-//        // 1) pairwise polygon-vs-polygon intersection
-//        for (int i = 0; i < moving.size(); i++) {
-//            Packet a = moving.get(i);
-//            List<Point> polyA = worldHitMap(a);
-//            if (polyA.size() < 2) continue;
-//
-//            for (int j = i + 1; j < moving.size(); j++) {
-//                Packet b = moving.get(j);
-//                List<Point> polyB = worldHitMap(b);
-//                if (polyB.size() < 2) continue;
-//
-//                // 1a) edge vs edge test
-//                boolean hit = polygonsIntersect(polyA, polyB);
-//
-//                // 1b) (fallback) containment test: a vertex inside the other polygon
-//                if (!hit) {
-//                    Point a0 = polyA.get(0);
-//                    Point b0 = polyB.get(0);
-//                    hit = pointInPolygon(a0, polyB) || pointInPolygon(b0, polyA);
-//                }
-//
-//                if (hit) {
-//                    // --- pick an impact point (prefer the first real segment intersection) ---
-//                    Point impact = firstIntersectionPoint(polyA, polyB);
-//                    if (impact == null) {
-//                        // fallback = midpoint between centers
-//                        Point ca = a.getScreenPosition();
-//                        Point cb = b.getScreenPosition();
-//                        impact = new Point((ca.x + cb.x) / 2, (ca.y + cb.y) / 2);
-//                    }
-//
-//                    // --- add noise (your Packet.incNoise() already self-destroys if >= size) ---
-//                    a.incNoise();
-//                    b.incNoise();
-//
-//                    // --- shove both away from the impact (adds lateral velocity) ---
-//                    a.applyImpactImpulse(impact, 1f);
-//                    b.applyImpactImpulse(impact, 1f);
-//
-//                    // --- make the shove visible immediately this frame too ---
-//                    a.immediateImpactStep(DT);
-//                    b.immediateImpactStep(DT);
-//                }
-//            }
-//        }
-//    }
 public void checkCollisions() {
-    final ArrayList<Packet> list = new ArrayList<>(allPackets);
-    final ArrayList<Packet> moving = new ArrayList<>(list.size());
-    for (Packet p : list) {
-        if (p != null && p.isMoving && p.getLine() != null && p.getScreenPosition() != null) moving.add(p);
-    }
-    if (moving.size() < 2) return;
-
-    rebuildGrid(moving);
-
-    // neighbor cell offsets
-    int[] off = {-1,0,1};
-
-    for (var e : grid.entrySet()) {
-        long k = e.getKey();
-        int cx = (int)(k >> 32);
-        int cy = (int)(k & 0xffffffffL);
-
-        for (int dx : off) for (int dy : off) {
-            ArrayList<Packet> bucket = grid.get(key(cx+dx, cy+dy));
-            if (bucket == null) continue;
-
-            // cross-check packets in 'e.getValue()' with 'bucket' (avoid dupes via id ordering)
-            for (Packet a : e.getValue()) {
-                Point ca = a.getScreenPosition(); if (ca == null) continue;
-                int ra = a.collisionRadius();
-
-                for (Packet b : bucket) {
-                    if (a.getId() >= b.getId()) continue;         // ensure each pair once
-                    Point cb = b.getScreenPosition(); if (cb == null) continue;
-                    int rb = b.collisionRadius();
-
-                    // circle–circle broad-phase
-                    int dxp = ca.x - cb.x, dyp = ca.y - cb.y;
-                    int sum = ra + rb;
-                    if (dxp*dxp + dyp*dyp > sum*sum) continue;
-
-                    // narrow-phase: polygon vs polygon
-                    List<Point> A = worldHitMap(a);
-                    List<Point> B = worldHitMap(b);
-                    boolean hit = polygonsIntersect(A,B) || pointInPolygon(A.get(0),B) || pointInPolygon(B.get(0),A);
-                    if (!hit) continue;
-
-                    // react
-                    // 1) noise
-                    a.incNoise();
-                    b.incNoise();
-
-                    // 2) impulse away from midpoint of closest centers (cheap & stable)
-                    Point impact = new Point((ca.x + cb.x)/2, (ca.y + cb.y)/2);
-                    a.applyImpactImpulse(impact, 1f);
-                    b.applyImpactImpulse(impact, 1f);
-
-                    // 3) tiny immediate step so they visibly separate this frame
-                    a.immediateImpactStep(1f/60f);
-                    b.immediateImpactStep(1f/60f);
-                }
-            }
-        }
-    }
-}
-
-
-    // Convert a packet’s local hit-map points to world space (center + offset).
-    private static List<Point> worldHitMap(Packet p) {
-        java.util.List<Point> local = p.hitMapLocal();   // you added these per-packet
+    final ArrayList<Packet> moving = collisionScratch;
+    moving.clear();
+    physics.beginPass();
+    for (Packet p : allPackets) {
+        if (p == null || !p.isMoving || p.getLine() == null) continue;
         Point c = p.getScreenPosition();
-        java.util.ArrayList<Point> world = new java.util.ArrayList<>(local.size());
-        for (Point q : local) world.add(new Point(c.x + q.x, c.y + q.y));
-        return world;
-    }
-
-    // Polygon (closed) intersection via edge–edge checks.
-    private static boolean polygonsIntersect(java.util.List<Point> A, java.util.List<Point> B) {
-        int na = A.size(), nb = B.size();
-        for (int ia = 0; ia < na; ia++) {
-            Point a0 = A.get(ia);
-            Point a1 = A.get((ia + 1) % na);
-            for (int ib = 0; ib < nb; ib++) {
-                Point b0 = B.get(ib);
-                Point b1 = B.get((ib + 1) % nb);
-                if (segmentsIntersect(a0, a1, b0, b1)) return true;
-            }
-        }
-        return false;
+        if (c == null) continue;
+        physics.add(p.getId(), c.x, c.y, p.collisionRadius(), p.hitShape());   // slot == index in moving
+        moving.add(p);
     }
-
-    // Robust segment intersection (including collinear overlap).
-    private static boolean segmentsIntersect(Point a, Point b, Point c, Point d) {
-        int o1 = orient(a, b, c);
-        int o2 = orient(a, b, d);
-        int o3 = orient(c, d, a);
-        int o4 = orient(c, d, b);
-
-        if (o1 != o2 && o3 != o4) return true; // general case
-
-        // Collinear cases
-        if (o1 == 0 && onSegment(a, b, c)) return true;
-        if (o2 == 0 && onSegment(a, b, d)) return true;
-        if (o3 == 0 && onSegment(c, d, a)) return true;
-        if (o4 == 0 && onSegment(c, d, b)) return true;
-
-        return false;
-    }
-
-    private static int orient(Point a, Point b, Point c) {
-        long v = (long)(b.x - a.x) * (c.y - a.y) - (long)(b.y - a.y) * (c.x - a.x);
-        return (v > 0) ? 1 : (v < 0 ? -1 : 0);
-    }
-
-    private static boolean onSegment(Point a, Point b, Point p) {
-        return Math.min(a.x, b.x) <= p.x && p.x <= Math.max(a.x, b.x) &&
-                Math.min(a.y, b.y) <= p.y && p.y <= Math.max(a.y, b.y) &&
-                orient(a, b, p) == 0;
+    List<ImpactEvent> impacts = physics.detectImpacts();          // also re-indexes for neighbours()
+    lastCandidatePairs = physics.getCandidatePairs();
+    lastImpactCount = impacts.size();
+
+    // contacts: react when a pair starts touching, not on every frame it stays in contact
+    LongHashSet current = nextContacts;
+    current.clear();
+    int continuing = 0;
+    contactsBegun = 0;
+    for (int i = 0, n = impacts.size(); i < n; i++) {        // indexed: no iterator per pass
+        ImpactEvent ev = impacts.get(i);
+        long k = ev.pairKey();
+        current.add(k);
+        if (activeContacts.contains(k)) { continuing++; continue; }
+        contactsBegun++;
+
+        // detection works on the snapshots only; reactions are applied here, in order, on this thread
+        Packet a = moving.get(ev.slot1);
+        Packet b = moving.get(ev.slot2);
+        if (a.getLine() == null || b.getLine() == null) continue;   // destroyed by an earlier hit
+
+        // 1) noise
+        a.incNoise();
+        b.incNoise();
+
+        // 2) impulse away from midpoint of closest centers (cheap & stable)
+        a.applyImpactImpulse(ev.impact.x, ev.impact.y, 1f);
+        b.applyImpactImpulse(ev.impact.x, ev.impact.y, 1f);
+
+        // 3) tiny immediate step so they visibly separate this frame
+        a.immediateImpactStep(tickSeconds);
+        b.immediateImpactStep(tickSeconds);
     }
+    contactsEnded = activeContacts.size() - continuing;
+    nextContacts = activeContacts;
+    activeContacts = current;
+}
 
-    // Standard ray-casting point-in-polygon.
-    private static boolean pointInPolygon(Point p, java.util.List<Point> poly) {
-        boolean inside = false;
-        int n = poly.size();
-        for (int i = 0, j = n - 1; i < n; j = i++) {
-            Point pi = poly.get(i), pj = poly.get(j);
-            boolean intersect = ((pi.y > p.y) != (pj.y > p.y)) &&
-                    (p.x < (long)(pj.x - pi.x) * (p.y - pi.y) / (double)(pj.y - pi.y) + pi.x);
-            if (intersect) inside = !inside;
+    /**
+     * Travelling packets whose centre was strictly within {@code r} of
+     * {@code at} in the last collision pass, {@code self} excluded, written to
+     * {@code out} (cleared first). Answered from the broad-phase grid, so the
+     * cost is the local density, not the packet count; reuse {@code out} to
+     * keep it allocation-free. Sim thread only.
+     */
+    public void neighbours(Point at, float r, Packet self, List<Packet> out) {
+        out.clear();
+        int n = physics.near(at.x, at.y, r, nearSlots);
+        if (n > nearSlots.length) {
+            nearSlots = new int[Integer.highestOneBit(n) << 1];
+            n = physics.near(at.x, at.y, r, nearSlots);
         }
-        return inside;
-    }
-    private static Point firstIntersectionPoint(List<Point> A, List<Point> B) {
-        int na = A.size(), nb = B.size();
-        for (int ia = 0; ia < na; ia++) {
-            Point a0 = A.get(ia);
-            Point a1 = A.get((ia + 1) % na);
-            for (int ib = 0; ib < nb; ib++) {
-                Point b0 = B.get(ib);
-                Point b1 = B.get((ib + 1) % nb);
-
-                Point p = segmentIntersectionPoint(a0, a1, b0, b1);
-                if (p != null) return p;
-            }
+        for (int i = 0; i < n; i++) {
+            Packet p = collisionScratch.get(nearSlots[i]);
+            if (p != self && registry.contains(p)) out.add(p);  // skip packets gone since the pass
         }
-        return null;
     }
 
-    // Returns intersection point for proper intersection; for collinear overlap returns midpoint of the overlap; else null.
-    private static Point segmentIntersectionPoint(Point a, Point b, Point c, Point d) {
-        long x1=a.x, y1=a.y, x2=b.x, y2=b.y, x3=c.x, y3=c.y, x4=d.x, y4=d.y;
+    /** Pairs that started / stopped touching in the last collision pass. */
+    public int getContactsBegun() { return contactsBegun; }
+    public int getContactsEnded() { return contactsEnded; }
 
-        long den = (x1-x2)*(y3-y4) - (y1-y2)*(x3-x4);
-        if (den != 0) {
-            double t = ((x1-x3)*(y3-y4) - (y1-y3)*(x3-x4)) / (double) den;
-            double u = ((x1-x3)*(y1-y2) - (y1-y3)*(x1-x2)) / (double) den;
-            if (t >= 0 && t <= 1 && u >= 0 && u <= 1) {
-                int px = (int)Math.round(x1 + t*(x2 - x1));
-                int py = (int)Math.round(y1 + t*(y2 - y1));
-                return new Point(px, py);
-            }
-            return null;
-        }
-
-        // Collinear? check overlap and return midpoint of the overlapped segment if any
-        if (orient(a,b,c) == 0 && orient(a,b,d) == 0) {
-            // project onto X or Y (whichever has larger span) and compute overlap
-            if (Math.abs(x1 - x2) >= Math.abs(y1 - y2)) {
-                long minAB = Math.min(x1, x2), maxAB = Math.max(x1, x2);
-                long minCD = Math.min(x3, x4), maxCD = Math.max(x3, x4);
-                long lo = Math.max(minAB, minCD);
-                long hi = Math.min(maxAB, maxCD);
-                if (lo <= hi) {
-                    long mid = (lo + hi) / 2;
-                    // find corresponding y via linear interpolation on segment AB
-                    double t = (x2 == x1) ? 0.0 : (mid - x1) / (double)(x2 - x1);
-                    int py = (int)Math.round(y1 + t*(y2 - y1));
-                    return new Point((int)mid, py);
-                }
-            } else {
-                long minAB = Math.min(y1, y2), maxAB = Math.max(y1, y2);
-                long minCD = Math.min(y3, y4), maxCD = Math.max(y3, y4);
-                long lo = Math.max(minAB, minCD);
-                long hi = Math.min(maxAB, maxCD);
-                if (lo <= hi) {
-                    long mid = (lo + hi) / 2;
-                    double t = (y2 == y1) ? 0.0 : (mid - y1) / (double)(y2 - y1);
-                    int px = (int)Math.round(x1 + t*(x2 - x1));
-                    return new Point(px, (int)mid);
-                }
-            }
-        }
-        return null;
+    /** Forget every contact, so the next pass treats all overlaps as new (benchmarks rewind with this). */
+    void clearContacts() {
+        activeContacts.clear();
+        nextContacts.clear();
     }
-    private void rebuildGrid(List<Packet> moving) {
-        grid.clear();
-
-        for (Packet p : moving) {
-            Point c = p.getScreenPosition();
-            if (c == null) continue;
-
-            int r = p.collisionRadius();
 
-            // Which cells does this (center±radius) span?
-            int minCx = Math.floorDiv(c.x - r, CELL);
-            int maxCx = Math.floorDiv(c.x + r, CELL);
-            int minCy = Math.floorDiv(c.y - r, CELL);
-            int maxCy = Math.floorDiv(c.y + r, CELL);
-
-            for (int cx = minCx; cx <= maxCx; cx++) {
-                for (int cy = minCy; cy <= maxCy; cy++) {
-                    grid.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(p);
-                }
+    public PhysicsEngine getPhysics() { return physics; }
+    public TickProfiler  getProfiler() { return profiler; }
+
+    /** Serial or ForkJoin narrow phase; both return the same impacts. */
+    public void setCollisionMode(PhysicsEngine.Mode mode) { physics.setMode(mode); }
+
+    /* ── readiness ───────────────────────────────────────────────────
+     * "Every port wired" and "no wire through a system centre" only change
+     * with topology, so both are kept as counters:
+     *   ▸ unwiredPorts        – per-system count, recounted when a port of
+     *                           that system is (un)wired or the system comes/goes
+     *   ▸ clearanceViolations – (wire, system) pairs that are too close;
+     *                           a changed wire is re-tested against every
+     *                           system, a moved system only against the wires
+     *                           near it or previously cutting it (clearanceIndex)
+     * Nothing is re-tested on a tick without topology changes.
+     */
+    private void refreshReadiness() {
+        if (changedSystems.isEmpty() && changedLines.isEmpty()) return;
+
+        Set<Line> lines = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Line l; (l = changedLines.poll()) != null; ) lines.add(l);
+        Set<System> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (System s; (s = changedSystems.poll()) != null; ) moved.add(s);
+
+        Set<Line> near = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayList<Line> before = new ArrayList<>();
+        for (System s : moved) {
+            boolean live = systems.contains(s);
+            int now = live ? countUnwired(s) : 0;
+            unwiredPorts += now - s.unwiredCounted;
+            s.unwiredCounted = now;
+
+            // only pairs that can flip: wires near the centre now, or cutting it before
+            near.clear();
+            if (live) {
+                Point c = centreOf(s);
+                clearanceIndex.linesWithin(c.x, c.y, SAFE_RADIUS, near);
             }
+            before.clear();
+            for (Map.Entry<Line, ArrayList<System>> e : cutSystems.entrySet())
+                if (e.getValue().contains(s)) before.add(e.getKey());
+            for (Line l : before) if (!lines.contains(l)) markCut(l, s, near.contains(l));
+            for (Line l : near)   if (!lines.contains(l)) markCut(l, s, true);
         }
-    }
-    private boolean allOutputsConnected(System s) {
-        for (OutputPort op : s.getOutputPorts())
-            if (op.getLine() == null)
-                return false;
-        return true;
-    }
-    private boolean allInputsConnected(System s) {
-        for (InputPort ip : s.getInputPorts()){
-            if(ip.getLine() == null){
-                return false;
+        for (Line l : lines) {
+            if (!allLines.contains(l)) {                  // removed: drop its pairs
+                ArrayList<System> cut = cutSystems.remove(l);
+                if (cut != null) clearanceViolations -= cut.size();
+                continue;
             }
+            for (System s : systems) markCut(l, s, wireCutsSystem(l, s));
         }
-        return true;
     }
-    private boolean wiringClearsSystemCentres() {
 
-        for (System sys : systems) {
+    private void markCut(Line l, System s, boolean cut) {
+        ArrayList<System> list = cutSystems.get(l);
+        boolean was = list != null && list.contains(s);
+        if (cut == was) return;
+        if (cut) {
+            cutSystems.computeIfAbsent(l, k -> new ArrayList<>(2)).add(s);
+            clearanceViolations++;
+        } else {
+            list.remove(s);
+            if (list.isEmpty()) cutSystems.remove(l);
+            clearanceViolations--;
+        }
+    }
 
-            /* centre of the rounded rectangle */
-            Point c = new Point(
-                    sys.getLocation().x + 90/2,   // SYS_W from GamePanel
-                    sys.getLocation().y + 70/2);  // SYS_H from GamePanel
+    private static int countUnwired(System s) {
+        int n = 0;
+        for (OutputPort op : s.getOutputPorts()) if (op.getLine() == null) n++;
+        for (InputPort ip : s.getInputPorts())   if (ip.getLine() == null) n++;
+        return n;
+    }
 
-            for (Line l : allLines) {
-                List<Point> pts = l.getPath(6);           // smoothed poly-line
-                for (int i = 0; i < pts.size()-1; i++) {
-                    if (segmentDistance(c, pts.get(i), pts.get(i+1)) < SAFE_RADIUS)
-                        return false;                     // wire too close → not ready
-                }
-            }
-        }
-        return true;                                      // every centre is clear
+    /* does the smoothed wire pass within SAFE_RADIUS of the system's centre? */
+    private boolean wireCutsSystem(Line l, System sys) {
+        Point c = centreOf(sys);
+        return clearanceIndex.within(l, c.x, c.y, SAFE_RADIUS);
     }
 
-    /* minimal distance from point p to segment ab (helper) */
-    private static double segmentDistance(Point p, Point a, Point b) {
-        double dx = b.x - a.x, dy = b.y - a.y;
-        if (dx == 0 && dy == 0) return p.distance(a);     // a==b
-        double t = ((p.x - a.x)*dx + (p.y - a.y)*dy) / (dx*dx + dy*dy);
-        t = Math.max(0, Math.min(1, t));                  // clamp to [0,1]
-        double projX = a.x + t*dx, projY = a.y + t*dy;
-        return p.distance(projX, projY);
+    /* centre of the rounded rectangle */
+    private static Point centreOf(System sys) {
+        return new Point(
+                sys.getLocation().x + System.WIDTH/2,
+                sys.getLocation().y + System.HEIGHT/2);
     }
     public void addToFirstCountPacket(){firstCountPacket++;}
     public void addToReceivedPacket(){receivedPacket++;}
+    public int getReceivedPacketCount() {return receivedPacket;}
+    public boolean isLevelPassed() {return isLevelPassed;}
+    public boolean isLevelOver() {return levelOver;}
+    /** Headless runs may skip the "no wire through a system centre" rule. */
+    public void setEnforceWireClearance(boolean enforce) {enforceWireClearance = enforce;}
+    /** Why {@link #isReady} is false, as of the last update: ports without a wire. */
+    public int getUnwiredPortCount() {return unwiredPorts;}
+    /** ... and (wire, system) pairs where a wire passes too close to a system centre. */
+    public int getClearanceViolationCount() {return clearanceViolations;}
+    /** Minimum spacing in px between packets on one wire, for every wire now and later; 0 = one at a time. */
+    public void setWireHeadway(float px) {
+        wireHeadway = Math.max(0f, px);
+        for (Line l : allLines) l.setHeadway(wireHeadway);
+    }
+    public float getWireHeadway() {return wireHeadway;}
     public void setLevelName(String levelName) {   // NEW
         this.levelName = levelName;
     }
@@ -562,29 +554,9 @@ public void checkCollisions() {
     }
     // SystemManager.java
     public void packetDestroyed(Packet p) {
-        // 1) Detach from its current line, if any
         Line l = p.getLine();
-        if (l != null) {
-            Packet mp = l.getMovingPacket();
-            if (mp == p) {                 // identity compare, null-safe
-                l.removeMovingPacket();    // clears the line’s moving packet
-            }
-            p.setLine(null);               // clear packet's line pointer
-        }
-
-        // 2) Remove from any system queues
-        for (System sys : systems) {
-            sys.removePacket(p);
-        }
-
-        // 3) Remove from the global render list
-        allPackets.remove(p);
-    }// pairs overlapping in the previous frame
-    private static long pairKey(int id1, int id2) {
-        if (id1 > id2) { int t = id1; id1 = id2; id2 = t; }
-        return (((long) id1) << 32) ^ (id2 & 0xffffffffL);
-    }
-    private static long key(int cx, int cy) {
-        return (((long) cx) << 32) ^ (cy & 0xffffffffL);
+        if (l != null) l.removeMovingPacket(p);
+        p.setLine(null);
+        removePacket(p);                   // queue, registry and id in O(1)
     }
 }
\ No newline at end of file
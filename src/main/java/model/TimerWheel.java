@@ -0,0 +1,163 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timer wheel on simulation ticks (one {@link SystemManager#update}
+ * = one tick). Everything time-limited in a level registers here and is only
+ * touched again when it fires, so a tick costs O(timers due) instead of a
+ * poll over every packet and effect point.
+ *
+ *   level 0 – 64 slots of 1 tick
+ *   level 1 – 64 slots of 64 ticks
+ *   level 2 – 64 slots of 4 096 ticks
+ *   level 3 – 64 slots of 262 144 ticks
+ *
+ * A timer lives in the lowest level whose span covers its delay and cascades
+ * down as the wheel turns; anything past level 3 waits in an overflow list.
+ * Slots are intrusive doubly-linked lists, so schedule and cancel are O(1).
+ *
+ * Not thread-safe: owned by the sim thread. Other threads go through
+ * {@link SystemManager#scheduleTimed}.
+ */
+public final class TimerWheel {
+
+    /** A reusable timer; re-scheduling a pending one moves it. */
+    public static final class Timer {
+        private final Runnable action;
+        private long  deadline;
+        private Timer prev, next;
+        private int   level = IDLE, slot;
+
+        public Timer(Runnable action) { this.action = action; }
+
+        public boolean isPending() { return level >= 0; }
+        /** Tick this timer fires on; meaningful only while pending. */
+        public long    deadline()  { return deadline; }
+    }
+
+    private static final int BITS   = 6;
+    private static final int SLOTS  = 1 << BITS;
+    private static final int MASK   = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int IDLE   = -1;
+    private static final int FIRING = -2;     // due this tick, action not run yet
+    private static final int OVERFLOW = LEVELS;
+
+    private final Timer[][] heads = new Timer[LEVELS][SLOTS];
+    private Timer overflow;
+    private Timer[] firing = new Timer[16];
+    private long  now;
+    private int   pending;
+
+    public long now()     { return now; }
+    public int  pending() { return pending; }
+
+    /** One-shot convenience: fires {@code action} after {@code delayTicks} (at least 1). */
+    public Timer schedule(long delayTicks, Runnable action) {
+        Timer t = new Timer(action);
+        schedule(t, delayTicks);
+        return t;
+    }
+
+    /** (Re)arm {@code t} to fire after {@code delayTicks} (at least 1). */
+    public void schedule(Timer t, long delayTicks) {
+        if (t.isPending()) unlink(t);
+        else pending++;
+        t.deadline = now + Math.max(1L, delayTicks);
+        place(t);
+    }
+
+    /** @return true if {@code t} was pending */
+    public boolean cancel(Timer t) {
+        if (t.level == FIRING) { t.level = IDLE; return true; }   // due, but cancelled by an earlier action
+        if (!t.isPending()) return false;
+        unlink(t);
+        pending--;
+        return true;
+    }
+
+    /** Turn the wheel by one tick and run every timer due on it. */
+    public void advance() {
+        now++;
+        // cascade from the highest level whose index just wrapped, downwards,
+        // so nothing is re-filed into a slot that was already emptied
+        int top = 0;
+        while (top + 1 < LEVELS && (now & ((1L << (BITS * (top + 1))) - 1)) == 0) top++;
+        if (top == LEVELS - 1) refile(detachOverflow());
+        for (int lvl = top; lvl >= 1; lvl--)
+            refile(detach(lvl, (int) (now >>> (BITS * lvl)) & MASK));
+
+        // take the whole slot off the wheel first: actions may cancel or re-arm any timer
+        int n = 0;
+        for (Timer due = detach(0, (int) now & MASK); due != null; ) {
+            Timer next = due.next;
+            due.prev = due.next = null;
+            due.level = FIRING;
+            pending--;
+            if (n == firing.length) firing = Arrays.copyOf(firing, n * 2);
+            firing[n++] = due;
+            due = next;
+        }
+        for (int i = 0; i < n; i++) {
+            Timer t = firing[i];
+            firing[i] = null;
+            if (t.level != FIRING) continue;      // cancelled or re-armed meanwhile
+            t.level = IDLE;
+            t.action.run();
+        }
+    }
+
+    /* ── internals ───────────────────────────────────────────────── */
+
+    private void place(Timer t) {
+        long delta = t.deadline - now;
+        int lvl = 0;
+        while (lvl < LEVELS && delta >= (1L << (BITS * (lvl + 1)))) lvl++;
+        if (lvl == LEVELS) {
+            link(t, OVERFLOW, 0);
+            return;
+        }
+        link(t, lvl, (int) (t.deadline >>> (BITS * lvl)) & MASK);
+    }
+
+    private void refile(Timer list) {
+        while (list != null) {
+            Timer next = list.next;
+            list.prev = list.next = null;
+            place(list);
+            list = next;
+        }
+    }
+
+    private void link(Timer t, int lvl, int slot) {
+        Timer head = (lvl == OVERFLOW) ? overflow : heads[lvl][slot];
+        t.level = lvl;
+        t.slot  = slot;
+        t.prev  = null;
+        t.next  = head;
+        if (head != null) head.prev = t;
+        if (lvl == OVERFLOW) overflow = t; else heads[lvl][slot] = t;
+    }
+
+    private void unlink(Timer t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else if (t.level == OVERFLOW) overflow = t.next;
+        else heads[t.level][t.slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.level = IDLE;
+    }
+
+    private Timer detach(int lvl, int slot) {
+        Timer head = heads[lvl][slot];
+        heads[lvl][slot] = null;
+        return head;
+    }
+
+    private Timer detachOverflow() {
+        Timer head = overflow;
+        overflow = null;
+        return head;
+    }
+}
@@ -1,15 +1,17 @@
 package model.packets;
 
+import model.ArcLengthTable;
 import model.Packet;
 import model.Port;
 import model.Type;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.List;
 
 public class BigPacket1 extends BigPacket {
 
+    private static final int[] HIT_SHAPE = ring(16, 8, 0);           // cluster outline
+
     private static final float BASE_SPEED  = 2f;
     private static final float BEND_BOOST  = 1.2f;
     private static final float MAX_SPEED   = 5f;
@@ -18,11 +20,6 @@ public class BigPacket1 extends BigPacket {
     private final int originalSize = 8;
     private final int colorId;
 
-    private List<Point> path;
-    private List<Float> segLen;
-    private int   segIdx = 0;
-    private float sInSeg = 0f;
-
     private Point basePoint;
 
     public BigPacket1(int colorId) {
@@ -41,14 +38,15 @@ public class BigPacket1 extends BigPacket {
     @Override
     public void advance(float dt) {
         if (line == null) return;
-        if (path == null) initPath();
+        if (!cursor.isAttached()) initPath();
 
         // 1) bend boost
         acceleration = 0f;
-        if (segIdx > 0 && segIdx < segLen.size() - 1) {
-            Point a = path.get(segIdx - 1), b = path.get(segIdx), c = path.get(segIdx + 1);
-            double ux = b.x - a.x, uy = b.y - a.y;
-            double vx = c.x - b.x, vy = c.y - b.y;
+        int i = cursor.segment();
+        ArcLengthTable path = cursor.table();
+        if (i > 0 && i < path.segmentCount() - 1) {
+            double ux = path.x(i) - path.x(i - 1),  uy = path.y(i) - path.y(i - 1);
+            double vx = path.x(i + 1) - path.x(i),  vy = path.y(i + 1) - path.y(i);
             double u = Math.hypot(ux, uy), v = Math.hypot(vx, vy);
             if (u > 0 && v > 0) {
                 double cos = (ux*vx + uy*vy) / (u*v);
@@ -58,44 +56,28 @@ public class BigPacket1 extends BigPacket {
 
         // 2) physics + march
         speed = Math.min(speed + acceleration * dt, MAX_SPEED);
-        float remaining = speed * dt;
-
-        while (remaining > 0f && segIdx < segLen.size()) {
-            float segRemain = segLen.get(segIdx) - sInSeg;
-            if (remaining < segRemain) { sInSeg += remaining; remaining = 0f; }
-            else { remaining -= segRemain; segIdx++; sInSeg = 0f; }
-        }
+        cursor.forward(speed * dt);
 
         // 3) arrived
-        if (segIdx >= segLen.size()) {
+        if (cursor.pastEnd()) {
             isMoving = false;
             line.getEnd().getParentSystem().receivePacket(this);
             return;
         }
 
         // 4) base → impact
-        updateBasePoint();
+        basePoint = cursor.basePoint();
         this.point = composeImpact(basePoint, dt);
     }
 
     private void initPath() {
-        path   = line.getPath(6);
-        segLen = new ArrayList<>(Math.max(0, path.size() - 1));
-        for (int i = 0; i < path.size() - 1; i++)
-            segLen.add((float) path.get(i).distance(path.get(i + 1)));
-        segIdx = 0; sInSeg = 0f;
-        basePoint = point = path.isEmpty() ? null : path.get(0);
+        cursor.attach(line.getArcLengthTable(6));
+        basePoint = point = cursor.startPoint();
         isMoving  = true;
     }
 
-    private void updateBasePoint() {
-        float len = segLen.get(segIdx);
-        float t   = (len == 0f) ? 0f : (sInSeg / len);
-        basePoint = lerp(path.get(segIdx), path.get(segIdx + 1), t);
-    }
-
     @Override protected void resetPath() {
-        path = null; segLen = null; segIdx = 0; sInSeg = 0f; basePoint = null;
+        basePoint = null;
     }
 
     public ArrayList<BitPacket> split() {
@@ -104,18 +86,5 @@ public class BigPacket1 extends BigPacket {
         return list;
     }
 
-    @Override
-    public List<Point> hitMapLocal() {
-        int clusterR = 16, n = 8;
-        ArrayList<Point> pts = new ArrayList<>(n);
-        double step = 2 * Math.PI / n;
-        for (int i = 0; i < n; i++) {
-            double a = i * step;
-            pts.add(new Point(
-                    (int)Math.round(clusterR * Math.cos(a)),
-                    (int)Math.round(clusterR * Math.sin(a))
-            ));
-        }
-        return pts;
-    }
+    @Override protected int[] hitShape() { return HIT_SHAPE; }
 }
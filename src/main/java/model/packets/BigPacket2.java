@@ -1,30 +1,28 @@
 package model.packets;
 
-import model.Line;
 import model.Packet;
 import model.Port;
 
 import java.awt.*;
+import java.awt.geom.Point2D;
 import java.util.ArrayList;
-import java.util.List;
 
 import static model.Type.BIG;
 
 /**
  * BigPacket2
- * - Moves along the wire like other packets (segIdx / sInSeg marching).
+ * - Moves along the wire like other packets (PathCursor marching).
  * - Adds a sideways wiggle (perpendicular to the segment).
  * - Every STEP_INTERVAL pixels of arc-length, the packet permanently rises
  *   by RISE_STEP pixels in screen space (negative Y).
  */
 public class BigPacket2 extends BigPacket {
+
+    private static final int[] HIT_SHAPE = ring(16, 10, 0);          // cluster outline
     private final int originalSize = 10;
     private final int colorId;
 
-    private List<Point> path;
-    private List<Float> segLen;
-    private int   segIdx = 0;
-    private float sInSeg = 0f;
+    private final Point2D.Float tangent = new Point2D.Float();   // scratch for the wiggle normal
 
     private static final float WIGGLE_AMPL = 3f;
     private static final float WIGGLE_FREQ = 6f;
@@ -52,23 +50,18 @@ public class BigPacket2 extends BigPacket {
     @Override
     public void advance(float dt) {
         if (line == null) return;
-        if (path == null) initialisePath();
+        if (!cursor.isAttached()) initialisePath();
 
         // 1) integrate along the wire + stairs
-        float remaining = speed * dt;
-        while (remaining > 0f && segIdx < segLen.size()) {
-            float segRemain = segLen.get(segIdx) - sInSeg;
-
-            if (remaining < segRemain) { sInSeg += remaining; totalS += remaining; remaining = 0f; }
-            else { sInSeg = 0f; totalS += segRemain; remaining -= segRemain; segIdx++; }
-
-            updateBasePoint();
-
+        float moved = cursor.forward(speed * dt);
+        if (moved > 0f) {
+            totalS += moved;
+            if (!cursor.pastEnd()) basePoint = cursor.basePoint();   // last step may run off the end
             while (totalS >= nextRiseAt) { verticalOffset -= RISE_STEP; nextRiseAt += STEP_INTERVAL; }
         }
 
         // 2) arrived?
-        if (segIdx >= segLen.size()) {
+        if (cursor.pastEnd()) {
             isMoving = false;
             line.getEnd().getParentSystem().receivePacket(this);
             return;
@@ -78,10 +71,8 @@ public class BigPacket2 extends BigPacket {
         wigglePhase += WIGGLE_FREQ * dt;
 
         // compute wiggle vector (perp to segment)
-        Point a = path.get(segIdx), b = path.get(segIdx + 1);
-        double dx = b.x - a.x, dy = b.y - a.y, len = Math.hypot(dx, dy);
-        double nx = 0, ny = 0;
-        if (len > 0) { dx/=len; dy/=len; nx = -dy; ny = dx; }
+        Point2D.Float t = cursor.tangent(tangent);
+        double nx = -t.y, ny = t.x;
 
         double sway = WIGGLE_AMPL * Math.sin(wigglePhase);
         Point decoratedBase = new Point(
@@ -93,27 +84,15 @@ public class BigPacket2 extends BigPacket {
     }
 
     private void initialisePath() {
-        path   = line.getPath(6);
-        segLen = new ArrayList<>(Math.max(0, path.size() - 1));
-        for (int i = 0; i < path.size() - 1; i++)
-            segLen.add((float) path.get(i).distance(path.get(i + 1)));
-
-        segIdx = 0; sInSeg = 0f;
+        cursor.attach(line.getArcLengthTable(6));
         totalS = 0f; nextRiseAt = STEP_INTERVAL; verticalOffset = 0f;
         wigglePhase = 0f;
 
-        basePoint = point = path.isEmpty() ? null : path.get(0);
+        basePoint = point = cursor.startPoint();
         isMoving  = true;
     }
 
-    private void updateBasePoint() {
-        float len = segLen.get(segIdx);
-        float t   = (len == 0f) ? 0f : (sInSeg / len);
-        basePoint = lerp(path.get(segIdx), path.get(segIdx + 1), t);
-    }
-
     @Override protected void resetPath() {
-        path = null; segLen = null; segIdx = 0; sInSeg = 0f;
         basePoint = null;
         wigglePhase = 0f;
         totalS = 0f; nextRiseAt = STEP_INTERVAL; verticalOffset = 0f;
@@ -132,18 +111,5 @@ public class BigPacket2 extends BigPacket {
         return list;
     }
 
-    @Override
-    public List<Point> hitMapLocal() {
-        int clusterR = 16, n = 10;
-        ArrayList<Point> pts = new ArrayList<>(n);
-        double step = 2 * Math.PI / n;
-        for (int i = 0; i < n; i++) {
-            double a = i * step;
-            pts.add(new Point(
-                    (int) Math.round(clusterR * Math.cos(a)),
-                    (int) Math.round(clusterR * Math.sin(a))
-            ));
-        }
-        return pts;
-    }
+    @Override protected int[] hitShape() { return HIT_SHAPE; }
 }
@@ -4,8 +4,6 @@ import model.Packet;
 import model.Port;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
 
 import static model.Type.BIT;
 
@@ -17,10 +15,6 @@ public class BitPacket extends Packet implements MessengerTag {
     private final int parentLength;
 
     /* movement tables */
-    private List<Point> path;
-    private List<Float> segLen;
-    private int   segIdx  = 0;
-    private float sInSeg  = 0f;
     private final float maxSpeed = 5f;
 
     /* base center */
@@ -54,60 +48,39 @@ public class BitPacket extends Packet implements MessengerTag {
     @Override
     public void advance(float dt) {
         if (line == null) { isMoving = false; return; }
-        if (path == null) initPath();
-        if (path.size() < 2) return;
+        if (!cursor.isAttached()) initPath();
+        if (cursor.isDegenerate()) return;
 
         // 1) physics
         speed += acceleration * dt;
         speed = Math.max(-maxSpeed, Math.min(maxSpeed, speed));
-        float remaining = speed * dt;
 
         // 2) march both directions
-        while (remaining != 0f && segIdx >= 0 && segIdx < segLen.size()) {
-            if (remaining > 0f) {
-                float segRemain = segLen.get(segIdx) - sInSeg;
-                if (remaining < segRemain) { sInSeg += remaining; remaining = 0f; }
-                else { remaining -= segRemain; segIdx++; sInSeg = 0f; }
-            } else {
-                float stepBack = Math.min(-remaining, sInSeg);
-                sInSeg -= stepBack; remaining += stepBack;
-                if (sInSeg == 0f && segIdx > 0) { segIdx--; sInSeg = segLen.get(segIdx); }
-            }
-        }
+        cursor.march(speed * dt);
 
         // 3) arrival
-        if (segIdx >= segLen.size()) {
+        if (cursor.pastEnd()) {
             line.getEnd().getParentSystem().receivePacket(this);
             return;
         }
-        if (segIdx < 0) {
+        if (cursor.beforeStart()) {
             line.getStart().getParentSystem().receivePacket(this);
             return;
         }
 
         // 4) base → impact
-        updateBasePoint();
+        basePoint = cursor.basePoint();
         this.point = composeImpact(basePoint, dt);
     }
 
     private void initPath() {
-        path   = line.getPath(6);
-        segLen = new ArrayList<>(Math.max(0, path.size() - 1));
-        for (int i = 0; i < path.size() - 1; i++)
-            segLen.add((float) path.get(i).distance(path.get(i + 1)));
-        segIdx = 0; sInSeg = 0f;
-        basePoint = point = path.isEmpty() ? null : path.get(0);
+        cursor.attach(line.getArcLengthTable(6));
+        basePoint = point = cursor.startPoint();
         isMoving  = true;
     }
 
-    private void updateBasePoint() {
-        float len = segLen.get(segIdx);
-        float t   = (len == 0f) ? 0f : (sInSeg / len);
-        basePoint = lerp(path.get(segIdx), path.get(segIdx + 1), t);
-    }
-
     @Override protected void resetPath() {
-        path = null; segLen = null; segIdx = 0; sInSeg = 0f; basePoint = null;
+        basePoint = null;
     }
 
     @Override public void resetCenterDrift() {
@@ -115,17 +88,6 @@ public class BitPacket extends Packet implements MessengerTag {
         impactDX = impactDY = 0f; impactVX = impactVY = 0f;
     }
 
-    @Override
-    public List<Point> hitMapLocal() {
-        int r = 8;
-        ArrayList<Point> pts = new ArrayList<>(8);
-        for (int i = 0; i < 8; i++) {
-            double a = i * Math.PI / 4.0;
-            pts.add(new Point((int)Math.round(r * Math.cos(a)),
-                    (int)Math.round(r * Math.sin(a))));
-        }
-        return pts;
-    }
 
     public int getParentId()     { return parentId; }
     public int getFragmentIdx()  { return fragmentIdx; }
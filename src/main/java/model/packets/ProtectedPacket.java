@@ -4,22 +4,17 @@ import model.Packet;
 import model.Port;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static model.Type.OTHERS;
 
 public class ProtectedPacket<P extends Packet & MessengerTag> extends Packet {
 
+    private static final int[] HIT_SHAPE = { 0, -8,   8, 0,   0, 8,   -8, 0 };
+
     private final P inner;
     private int systemId;
 
-    private List<Point> path;
-    private List<Float> segLen;
-    private int   segIdx  = 0;
-    private float sInSeg  = 0f;
-
     private Point basePoint;
 
     public ProtectedPacket(P inner) {
@@ -43,50 +38,35 @@ public class ProtectedPacket<P extends Packet & MessengerTag> extends Packet {
     @Override
     public void advance(float dt) {
         if (line == null) return;
-        if (path == null) initPath();
-        if (path.size() < 2) return;
+        if (!cursor.isAttached()) initPath();
+        if (cursor.isDegenerate()) return;
 
         // 1) physics
         speed += acceleration * dt;
-        float remaining = speed * dt;
 
         // 2) march
-        while (remaining > 0f && segIdx < segLen.size()) {
-            float segRemain = segLen.get(segIdx) - sInSeg;
-            if (remaining < segRemain) { sInSeg += remaining; remaining = 0f; }
-            else { remaining -= segRemain; segIdx++; sInSeg = 0f; }
-        }
+        cursor.forward(speed * dt);
 
         // 3) arrival
-        if (segIdx >= segLen.size()) {
+        if (cursor.pastEnd()) {
             isMoving = false;
             line.getEnd().getParentSystem().receivePacket(this);
             return;
         }
 
         // 4) base → impact
-        updateBasePoint();
+        basePoint = cursor.basePoint();
         this.point = composeImpact(basePoint, dt);
     }
 
     private void initPath() {
-        path   = line.getPath(6);
-        segLen = new ArrayList<>(Math.max(0, path.size() - 1));
-        for (int i = 0; i < path.size() - 1; i++)
-            segLen.add((float) path.get(i).distance(path.get(i + 1)));
-        segIdx = 0; sInSeg = 0f;
-        basePoint = point = path.isEmpty() ? null : path.get(0);
+        cursor.attach(line.getArcLengthTable(6));
+        basePoint = point = cursor.startPoint();
         isMoving  = true;
     }
 
-    private void updateBasePoint() {
-        float len = segLen.get(segIdx);
-        float t   = (len == 0f) ? 0f : (sInSeg / len);
-        basePoint = lerp(path.get(segIdx), path.get(segIdx + 1), t);
-    }
-
     @Override protected void resetPath() {
-        path = null; segLen = null; segIdx = 0; sInSeg = 0f; basePoint = null;
+        basePoint = null;
     }
 
     @Override public int collisionRadius() { return 10; }
@@ -96,14 +76,5 @@ public class ProtectedPacket<P extends Packet & MessengerTag> extends Packet {
         impactDX = impactDY = 0f; impactVX = impactVY = 0f;
     }
 
-    @Override
-    public List<Point> hitMapLocal() {
-        int r = 8;
-        ArrayList<Point> pts = new ArrayList<>(4);
-        pts.add(new Point( 0, -r));
-        pts.add(new Point( r,  0));
-        pts.add(new Point( 0,  r));
-        pts.add(new Point(-r,  0));
-        return pts;
-    }
+    @Override protected int[] hitShape() { return HIT_SHAPE; }
 }
@@ -4,21 +4,16 @@ import model.Packet;
 import model.Port;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
 
 import static model.Type.OTHERS;
 
 public class SecretPacket1 extends Packet {
 
+    private static final int[] HIT_SHAPE = ring(8, 6, -30);          // flat-top hexagon
+
     private static final float FAST  = 2f;
     private static final float CRAWL = 1f;
 
-    private List<Point> path;
-    private List<Float> segLen;
-    private int   segIdx = 0;
-    private float sInSeg = 0f;
-
     private Point basePoint;
 
     public SecretPacket1() {
@@ -34,50 +29,35 @@ public class SecretPacket1 extends Packet {
     public void advance(float dt) {
         if (line == null) return;
 
-        if (path == null) {
+        if (!cursor.isAttached()) {
             initPath();
             boolean targetBusy =
                     !line.getEnd().getParentSystem().getPackets().isEmpty();
             speed = targetBusy ? CRAWL : FAST;
         }
-        if (path.size() < 2) return;
+        if (cursor.isDegenerate()) return;
 
         // 1) walk
-        float remaining = speed * dt;
-        while (remaining > 0f && segIdx < segLen.size()) {
-            float segRemain = segLen.get(segIdx) - sInSeg;
-            if (remaining < segRemain) { sInSeg += remaining; remaining = 0f; }
-            else { remaining -= segRemain; segIdx++; sInSeg = 0f; }
-        }
+        cursor.forward(speed * dt);
 
         // 2) done?
-        if (segIdx >= segLen.size()) {
+        if (cursor.pastEnd()) {
             line.getEnd().getParentSystem().receivePacket(this);
             return;
         }
 
         // 3) base → impact
-        updateBasePoint();
+        basePoint = cursor.basePoint();
         this.point = composeImpact(basePoint, dt);
     }
 
     private void initPath() {
-        path   = line.getPath(6);
-        segLen = new ArrayList<>(Math.max(0, path.size() - 1));
-        for (int i = 0; i < path.size() - 1; i++)
-            segLen.add((float) path.get(i).distance(path.get(i + 1)));
-        segIdx = 0; sInSeg = 0f;
-        basePoint = point = path.isEmpty() ? null : path.get(0);
-    }
-
-    private void updateBasePoint() {
-        float len = segLen.get(segIdx);
-        float t   = (len == 0f) ? 0f : (sInSeg / len);
-        basePoint = lerp(path.get(segIdx), path.get(segIdx + 1), t);
+        cursor.attach(line.getArcLengthTable(6));
+        basePoint = point = cursor.startPoint();
     }
 
     @Override protected void resetPath() {
-        path = null; segLen = null; segIdx = 0; sInSeg = 0f; basePoint = null;
+        basePoint = null;
     }
 
     @Override public void resetCenterDrift() {
@@ -85,15 +65,5 @@ public class SecretPacket1 extends Packet {
         impactDX = impactDY = 0f; impactVX = impactVY = 0f;
     }
 
-    @Override
-    public List<Point> hitMapLocal() {
-        int r = 8;
-        ArrayList<Point> pts = new ArrayList<>(6);
-        for (int i = 0; i < 6; i++) {
-            double ang = Math.toRadians(60 * i - 30); // flat top
-            pts.add(new Point((int)Math.round(r * Math.cos(ang)),
-                    (int)Math.round(r * Math.sin(ang))));
-        }
-        return pts;
-    }
+    @Override protected int[] hitShape() { return HIT_SHAPE; }
 }
@@ -4,17 +4,13 @@ import model.Packet;
 import model.Port;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
 
 import static model.Type.TRIANGLE;
 
 public class TrianglePacket extends Packet implements MessengerTag {
 
-    private List<Point> path;
-    private List<Float> segLen;
-    private int   segIdx = 0;
-    private float sInSeg = 0f;
+    private static final int[] HIT_SHAPE = { 0, -8,   -8, 8,   8, 8 };
+
     private final float maxSpeed = 7f;
 
     /* on-wire geometric center */
@@ -34,50 +30,34 @@ public class TrianglePacket extends Packet implements MessengerTag {
     @Override
     public void advance(float dt) {
         if (line == null) return;
-        if (path == null) initialisePath();
-        if (path.size() < 2) return;
+        if (!cursor.isAttached()) initialisePath();
+        if (cursor.isDegenerate()) return;
 
         // 1) physics
         speed = Math.min(speed + acceleration * dt, maxSpeed);
-        float remaining = speed * dt;
 
         // 2) march
-        while (remaining > 0f && segIdx < segLen.size()) {
-            float segRemain = segLen.get(segIdx) - sInSeg;
-            if (remaining < segRemain) { sInSeg += remaining; remaining = 0f; }
-            else { remaining -= segRemain; segIdx++; sInSeg = 0f; }
-        }
+        cursor.forward(speed * dt);
 
         // 3) arrived?
-        if (segIdx >= segLen.size()) {
+        if (cursor.pastEnd()) {
             line.getEnd().getParentSystem().receivePacket(this);
             return;
         }
 
         // 4) base → impact
-        updateBasePoint();
+        basePoint = cursor.basePoint();
         this.point = composeImpact(basePoint, dt);
     }
 
     private void initialisePath() {
-        path   = line.getPath(5);
-        segLen = new ArrayList<>(Math.max(0, path.size() - 1));
-        for (int i = 0; i < path.size() - 1; i++)
-            segLen.add((float) path.get(i).distance(path.get(i + 1)));
-
-        segIdx = 0; sInSeg = 0f;
-        basePoint = point = path.isEmpty() ? null : path.get(0);
+        cursor.attach(line.getArcLengthTable(5));
+        basePoint = point = cursor.startPoint();
         isMoving  = true;
     }
 
-    private void updateBasePoint() {
-        float len = segLen.get(segIdx);
-        float t   = (len == 0f) ? 0f : (sInSeg / len);
-        basePoint = lerp(path.get(segIdx), path.get(segIdx + 1), t);
-    }
-
     @Override protected void resetPath() {
-        path = null; segLen = null; segIdx = 0; sInSeg = 0f; basePoint = null;
+        basePoint = null;
     }
 
     @Override public void resetCenterDrift() {
@@ -87,13 +67,5 @@ public class TrianglePacket extends Packet implements MessengerTag {
 
     @Override public int collisionRadius() { return 9; }
 
-    @Override
-    public List<Point> hitMapLocal() {
-        int r = 8;
-        ArrayList<Point> pts = new ArrayList<>(3);
-        pts.add(new Point( 0, -r));
-        pts.add(new Point(-r,  r));
-        pts.add(new Point( r,  r));
-        return pts;
-    }
+    @Override protected int[] hitShape() { return HIT_SHAPE; }
 }
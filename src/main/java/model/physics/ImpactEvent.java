@@ -3,11 +3,47 @@ package model.physics;
 
 import java.awt.*;
 
+/**
+ * One detected hit between two packets. {@code slot1}/{@code slot2} index the
+ * snapshots the event was detected from; {@code id1 < id2} always.
+ *
+ * Events are pooled by the {@link PhysicsEngine} that produced them and
+ * rewritten by its next pass, so read them before detecting again.
+ */
 public class ImpactEvent {
-    public final int id1;
-    public final int id2;
-    public final Point impact;
-    public ImpactEvent(int id1, int id2, Point impact) {
-        this.id1 = id1; this.id2 = id2; this.impact = impact;
+    public int id1;
+    public int id2;
+    public int slot1;
+    public int slot2;
+    public final Point impact = new Point();
+
+    ImpactEvent() { }
+
+    void set(int id1, int id2, int slot1, int slot2, int x, int y) {
+        this.id1 = id1; this.id2 = id2;
+        this.slot1 = slot1; this.slot2 = slot2;
+        impact.setLocation(x, y);
+    }
+
+    /** Order-independent key for the (id1, id2) pair. */
+    public static long pairKey(int id1, int id2) {
+        if (id1 > id2) { int t = id1; id1 = id2; id2 = t; }
+        return (((long) id1) << 32) ^ (id2 & 0xffffffffL);
+    }
+
+    public long pairKey() { return pairKey(id1, id2); }
+
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof ImpactEvent e)) return false;
+        return id1 == e.id1 && id2 == e.id2 && slot1 == e.slot1 && slot2 == e.slot2
+                && impact.equals(e.impact);
+    }
+
+    @Override public int hashCode() {
+        return 31 * (31 * id1 + id2) + impact.hashCode();
+    }
+
+    @Override public String toString() {
+        return "ImpactEvent[" + id1 + "," + id2 + " @" + impact.x + "," + impact.y + "]";
     }
 }
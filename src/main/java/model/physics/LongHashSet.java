@@ -0,0 +1,73 @@
+// model/physics/LongHashSet.java
+package model.physics;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive longs (linear probing, power-of-two
+ * table, load ≤ 0.5). Used for per-tick pair keys, so {@link #clear()} keeps
+ * the table and nothing is boxed.
+ */
+public final class LongHashSet {
+    private static final long FREE = 0L;   // 0 is tracked separately
+
+    private long[]  keys;
+    private int     mask;
+    private int     size;
+    private boolean hasZero;
+
+    public LongHashSet() { this(64); }
+
+    public LongHashSet(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+        keys = new long[cap];
+        mask = cap - 1;
+    }
+
+    public int size() { return size + (hasZero ? 1 : 0); }
+
+    /** @return true if k was not in the set yet */
+    public boolean add(long k) {
+        if (k == FREE) {
+            if (hasZero) return false;
+            hasZero = true;
+            return true;
+        }
+        int slot = SpatialHashGrid.mix(k) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == k) return false;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = k;
+        if (++size * 2 > keys.length) grow();
+        return true;
+    }
+
+    public boolean contains(long k) {
+        if (k == FREE) return hasZero;
+        int slot = SpatialHashGrid.mix(k) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == k) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        if (size > 0) Arrays.fill(keys, FREE);
+        size = 0;
+        hasZero = false;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        mask = keys.length - 1;
+        for (long k : old) {
+            if (k == FREE) continue;
+            int slot = SpatialHashGrid.mix(k) & mask;
+            while (keys[slot] != FREE) slot = (slot + 1) & mask;
+            keys[slot] = k;
+        }
+    }
+}
@@ -1,95 +1,285 @@
-//// model/physics/PhysicsEngine.java
-//package model.physics;
-//
-//import model.Packet;
-//import java.awt.*;
-//import java.util.*;
-//import java.util.List;
-//import java.util.concurrent.*;
-//import java.util.stream.IntStream;
-//
-//public class PhysicsEngine {
-//
-//    public static final class Snapshot {
-//        public final int id;
-//        public final float x, y;
-//        public final int r;
-//        public Snapshot(int id, float x, float y, int r) {
-//            this.id = id; this.x = x; this.y = y; this.r = r;
-//        }
-//    }
-//
-//    // Build a uniform grid for broad-phase, then parallel narrow-phase
-//    public List<ImpactEvent> detectImpacts(List<Snapshot> snaps) {
-//        if (snaps.size() < 2) return Collections.emptyList();
-//
-//        // grid params
-//        int cell = Packet.COLLISION_RADIUS * 2;
-//        Map<Long, List<Integer>> buckets = new HashMap<>(snaps.size() * 2);
-//
-//        // hash function
-//        java.util.function.BiFunction<Integer,Integer,Long> key = (ix,iy) ->
-//                (((long)ix) << 32) ^ (iy & 0xffffffffL);
-//
-//        // fill grid
-//        for (int i = 0; i < snaps.size(); i++) {
-//            Snapshot s = snaps.get(i);
-//            int ix = (int)Math.floor(s.x / cell);
-//            int iy = (int)Math.floor(s.y / cell);
-//            long k = key.apply(ix, iy);
-//            buckets.computeIfAbsent(k, _ -> new ArrayList<>()).add(i);
-//        }
-//
-//        // candidate pairs (with de-dupe)
-//        ConcurrentHashMap<Long, Boolean> seen = new ConcurrentHashMap<>();
-//        List<int[]> pairs = Collections.synchronizedList(new ArrayList<>());
-//
-//        int[] neigh = {-1,0,1};
-//        for (var e : buckets.entrySet()) {
-//            long k = e.getKey();
-//            int ix = (int)(k >> 32);
-//            int iy = (int)k;
-//            List<Integer> base = e.getValue();
-//
-//            for (int dx : neigh) for (int dy : neigh) {
-//                long nk = key.apply(ix+dx, iy+dy);
-//                List<Integer> other = buckets.get(nk);
-//                if (other == null) continue;
-//
-//                for (int i : base) for (int j : other) {
-//                    if (i >= j) continue;
-//                    Snapshot a = snaps.get(i), b = snaps.get(j);
-//                    float dx12 = a.x - b.x, dy12 = a.y - b.y;
-//                    float rr = (a.r + b.r);
-//                    if (dx12*dx12 + dy12*dy12 <= rr*rr) {
-//                        long pairKey = (((long)Math.min(a.id, b.id)) << 32) | (Math.max(a.id, b.id) & 0xffffffffL);
-//                        if (seen.putIfAbsent(pairKey, Boolean.TRUE) == null) {
-//                            pairs.add(new int[]{i, j});
-//                        }
-//                    }
-//                }
-//            }
-//        }
-//
-//        // parallel narrow-phase & impact point
-//        ImpactEvent[] events = new ImpactEvent[pairs.size()];
-//        IntStream.range(0, pairs.size()).parallel().forEach(pi -> {
-//            int[] ij = pairs.get(pi);
-//            Snapshot a = snaps.get(ij[0]);
-//            Snapshot b = snaps.get(ij[1]);
-//            float dx = b.x - a.x, dy = b.y - a.y;
-//            float dist = (float)Math.hypot(dx, dy);
-//            if (dist < 1e-3f) return; // degenerate, skip
-//            float t = (float)a.r / (a.r + b.r);
-//            int ix = Math.round(a.x + t * dx);
-//            int iy = Math.round(a.y + t * dy);
-//            events[pi] = new ImpactEvent(a.id, b.id, new Point(ix, iy));
-//        });
-//
-//        ArrayList<ImpactEvent> out = new ArrayList<>();
-//        for (ImpactEvent ev : events) if (ev != null) out.add(ev);
-//        // sort for determinism
-//        out.sort(Comparator.comparingInt((ImpactEvent e) -> e.id1).thenComparingInt(e -> e.id2));
-//        return out;
-//    }
-//}
+// model/physics/PhysicsEngine.java
+package model.physics;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Collision detection over packet snapshots.
+ *
+ *   0) snapshots    – {@link #beginPass} + one {@link #add} per moving packet,
+ *                     stored in slot-indexed columns that are reused every pass
+ *   1) broad phase  – incremental spatial hash grid + circle–circle test
+ *                     (always one thread)
+ *   2) narrow phase – polygon vs polygon per candidate pair, either inline
+ *                     (SERIAL) or split across a ForkJoin pool (PARALLEL)
+ *   3) output       – one impact per overlapping pair, sorted by (id1, id2),
+ *                     so both modes return the exact same list and the caller
+ *                     can apply it on one thread
+ *
+ * Nothing here touches a Packet: snapshots are taken by SystemManager and
+ * events are applied by it. Columns, candidate pairs, hit flags, events and
+ * the output list are all kept between passes, so once they have grown to the
+ * population a pass with no hits allocates nothing. Between passes the grid
+ * doubles as a neighbour index over the last pass's snapshots – see {@link #near}.
+ */
+public class PhysicsEngine {
+
+    public enum Mode { SERIAL, PARALLEL }
+
+    private static final int MIN_CELL = 16;
+    private static final int DEFAULT_SPLIT = 256;       // pairs per ForkJoin leaf
+
+    private static final Comparator<ImpactEvent> ORDER =
+            Comparator.comparingInt((ImpactEvent e) -> e.id1).thenComparingInt(e -> e.id2);
+
+    private final ForkJoinPool pool;
+    private Mode mode = Mode.SERIAL;
+    private boolean verify;
+    private long mismatches;
+    private int splitThreshold = DEFAULT_SPLIT;
+
+    // snapshot columns, indexed by slot 0 … count-1
+    private int count;
+    private int[] ids = new int[64], xs = new int[64], ys = new int[64], rs = new int[64];
+    private int[][] shapes = new int[64][];       // local hit polygons, shared per packet class – never modified
+
+    private final SpatialHashGrid grid = new SpatialHashGrid(32);
+    private final LongHashSet tested = new LongHashSet();   // pairs already queued this pass
+    // candidate pairs as interleaved snapshot slots {a0, b0, a1, b1, …}
+    private int[] pairs = new int[64];
+    private int pairCount;
+    private boolean[] hit = new boolean[32];      // narrow-phase verdict per candidate pair
+    // the grid indexes the last pass's snapshots only if there were at least two
+    private boolean gridCurrent;
+
+    private final Impacts impacts = new Impacts();
+    private final Impacts checked = new Impacts();          // the other mode's list, verify only
+
+    public PhysicsEngine() { this(ForkJoinPool.commonPool()); }
+    public PhysicsEngine(ForkJoinPool pool) { this.pool = pool; }
+
+    public Mode getMode()            { return mode; }
+    public void setMode(Mode mode)   { this.mode = mode; }
+
+    /** When on, every pass also runs the other mode and counts lists that differ. */
+    public void setVerify(boolean on) { verify = on; }
+    public long getMismatches()       { return mismatches; }
+
+    /**
+     * Largest pair range a PARALLEL narrow phase runs inline; bigger ranges
+     * are halved and forked. Lower it (down to 1) to make small levels fork.
+     */
+    public void setSplitThreshold(int pairs) { splitThreshold = Math.max(1, pairs); }
+    public int  getSplitThreshold()          { return splitThreshold; }
+
+    /** Candidate pairs that survived the broad phase in the last pass. */
+    public int getCandidatePairs()    { return pairCount; }
+
+    /* ── snapshots ───────────────────────────────────────────────── */
+
+    /** Forget the last pass's snapshots; the next {@link #add} gets slot 0. */
+    public void beginPass() {
+        count = 0;
+        gridCurrent = false;
+    }
+
+    /** Snapshot one moving packet (centre, collision radius, local hit polygon); returns its slot. */
+    public int add(int id, int x, int y, int r, int[] shape) {
+        if (count == ids.length) {
+            int n = count * 2;
+            ids = Arrays.copyOf(ids, n); xs = Arrays.copyOf(xs, n);
+            ys = Arrays.copyOf(ys, n);   rs = Arrays.copyOf(rs, n);
+            shapes = Arrays.copyOf(shapes, n);
+        }
+        ids[count] = id; xs[count] = x; ys[count] = y; rs[count] = r; shapes[count] = shape;
+        return count++;
+    }
+
+    /** Snapshots added since {@link #beginPass}. */
+    public int size() { return count; }
+
+    /**
+     * Broad + narrow phase over the current snapshots. The returned list and
+     * its events belong to the engine and are overwritten by the next pass;
+     * copy whatever has to outlive it.
+     */
+    public List<ImpactEvent> detectImpacts() {
+        if (broadPhase() == 0) {
+            impacts.clear();
+            return impacts.view;
+        }
+        List<ImpactEvent> out = narrowPhase(mode);
+        if (verify) {
+            narrow(mode == Mode.SERIAL ? Mode.PARALLEL : Mode.SERIAL, checked);
+            if (!impacts.list.equals(checked.list)) mismatches++;
+        }
+        return out;
+    }
+
+    /* ── broad phase ─────────────────────────────────────────────── */
+
+    /**
+     * Re-files the current snapshots in the grid and collects the pairs whose
+     * circles overlap; returns how many. {@link #detectImpacts} runs this
+     * first – it is public so the phase can be measured on its own.
+     */
+    public int broadPhase() {
+        pairCount = 0;
+        gridCurrent = count >= 2;
+        if (!gridCurrent) return 0;
+
+        int maxR = 0;
+        for (int s = 0; s < count; s++) maxR = Math.max(maxR, rs[s]);
+        // any cell size is correct (entries cover every cell their circle touches);
+        // ~2 × the largest radius keeps each packet in at most 2×2 cells
+        int want = Math.max(MIN_CELL, 2 * maxR);
+        if (want > grid.cellSize() || 2 * want < grid.cellSize()) grid.reset(want);
+
+        grid.beginUpdate();
+        for (int s = 0; s < count; s++) grid.put(ids[s], xs[s], ys[s], rs[s], s);
+        grid.endUpdate();
+
+        // two circles that overlap share at least one cell, so same-cell pairs are enough;
+        // a pair sharing several cells is queued once
+        tested.clear();
+        for (int c = 0, cells = grid.cells(); c < cells; c++) {
+            int[] items = grid.items(c);
+            int n = grid.count(c);
+            for (int i = 0; i < n; i++) {
+                int a = grid.payload(items[i]);
+                for (int j = i + 1; j < n; j++) {
+                    int b = grid.payload(items[j]);
+                    int dxp = xs[a] - xs[b], dyp = ys[a] - ys[b], sum = rs[a] + rs[b];
+                    if (dxp * dxp + dyp * dyp > sum * sum) continue;  // circle–circle
+                    if (!tested.add(ImpactEvent.pairKey(ids[a], ids[b]))) continue;
+                    if (ids[a] < ids[b]) addPair(a, b); else addPair(b, a);
+                }
+            }
+        }
+        return pairCount;
+    }
+
+    private void addPair(int a, int b) {
+        int at = pairCount * 2;
+        if (at + 2 > pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        pairs[at] = a;
+        pairs[at + 1] = b;
+        pairCount++;
+    }
+
+    /* ── neighbour query ─────────────────────────────────────────── */
+
+    /**
+     * Slots of the last pass's snapshots whose centre lies strictly within
+     * {@code r} of (x, y). Writes at most {@code out.length} slots and returns
+     * how many matched, so a caller with a short buffer grows it and asks again.
+     * Only the cells around the point are visited.
+     */
+    public int near(int x, int y, float r, int[] out) {
+        float r2 = r * r;
+        int found = 0;
+        if (!gridCurrent) {                                   // 0 or 1 snapshot: nothing was filed
+            for (int s = 0; s < count; s++) {
+                if (within(s, x, y, r2)) { if (found < out.length) out[found] = s; found++; }
+            }
+            return found;
+        }
+        int cs = grid.cellSize();
+        int minCx = Math.floorDiv((int) Math.floor(x - r), cs), maxCx = Math.floorDiv((int) Math.ceil(x + r), cs);
+        int minCy = Math.floorDiv((int) Math.floor(y - r), cs), maxCy = Math.floorDiv((int) Math.ceil(y + r), cs);
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                int c = grid.cellAt(cx, cy);
+                if (c < 0) continue;
+                int[] items = grid.items(c);
+                for (int i = 0, n = grid.count(c); i < n; i++) {
+                    int s = grid.payload(items[i]);
+                    // an entry covers several cells; report it only from the one holding its centre
+                    if (Math.floorDiv(xs[s], cs) != cx || Math.floorDiv(ys[s], cs) != cy) continue;
+                    if (within(s, x, y, r2)) { if (found < out.length) out[found] = s; found++; }
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean within(int s, int x, int y, float r2) {
+        float dx = xs[s] - x, dy = ys[s] - y;
+        return dx * dx + dy * dy < r2;
+    }
+
+    /* ── narrow phase ────────────────────────────────────────────── */
+
+    /**
+     * Polygon test over the pairs of the last {@link #broadPhase}, in mode
+     * {@code m}. Same ownership as {@link #detectImpacts}; public so the
+     * phase can be measured on its own.
+     */
+    public List<ImpactEvent> narrowPhase(Mode m) {
+        narrow(m, impacts);
+        return impacts.view;
+    }
+
+    private void narrow(Mode m, Impacts out) {
+        if (hit.length < pairCount) hit = new boolean[pairs.length / 2];
+        if (m == Mode.PARALLEL && pairCount > splitThreshold)
+            pool.invoke(new NarrowTask(0, pairCount));
+        else
+            narrowRange(0, pairCount);
+
+        out.clear();
+        for (int i = 0; i < pairCount; i++) {
+            if (!hit[i]) continue;
+            int a = pairs[2 * i], b = pairs[2 * i + 1];
+            // impulse origin: midpoint of the two centres (cheap & stable)
+            out.add(ids[a], ids[b], a, b, (xs[a] + xs[b]) / 2, (ys[a] + ys[b]) / 2);
+        }
+        out.list.sort(ORDER);                              // sort for determinism
+    }
+
+    private void narrowRange(int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            int a = pairs[2 * i], b = pairs[2 * i + 1];
+            hit[i] = Polygons.intersect(shapes[a], xs[a], ys[a], shapes[b], xs[b], ys[b]);
+        }
+    }
+
+    /** Splits the pair range in halves until a leaf is small enough to run inline. */
+    @SuppressWarnings("serial")                     // a ForkJoin task, never serialized
+    private final class NarrowTask extends RecursiveAction {
+        private final int lo, hi;
+
+        NarrowTask(int lo, int hi) { this.lo = lo; this.hi = hi; }
+
+        @Override protected void compute() {
+            if (hi - lo <= splitThreshold) {
+                narrowRange(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new NarrowTask(lo, mid), new NarrowTask(mid, hi));
+        }
+    }
+
+    /** One output list plus the pooled events it hands out; both grow to the largest pass seen. */
+    private static final class Impacts {
+        final ArrayList<ImpactEvent> list = new ArrayList<>();
+        final List<ImpactEvent> view = Collections.unmodifiableList(list);
+        private ImpactEvent[] events = new ImpactEvent[0];
+
+        void clear() { list.clear(); }
+
+        void add(int id1, int id2, int slot1, int slot2, int x, int y) {
+            int n = list.size();
+            if (n == events.length) {
+                events = Arrays.copyOf(events, Math.max(16, n * 2));
+                for (int i = n; i < events.length; i++) events[i] = new ImpactEvent();
+            }
+            ImpactEvent ev = events[n];
+            ev.set(id1, id2, slot1, slot2, x, y);
+            list.add(ev);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+// model/physics/Polygons.java
+package model.physics;
+
+/**
+ * Integer polygon tests for the collision narrow phase.
+ *
+ * Polygons are interleaved {x0, y0, x1, y1, …} vertex arrays in local
+ * coordinates, placed at (ox, oy). Translating on the fly lets every
+ * packet of a class share one static shape, and nothing here allocates.
+ */
+public final class Polygons {
+    private Polygons() {}
+
+    /** Edge crossing, or one polygon's first vertex inside the other. */
+    public static boolean intersect(int[] a, int ax, int ay, int[] b, int bx, int by) {
+        return edgesCross(a, ax, ay, b, bx, by)
+                || contains(b, bx, by, a[0] + ax, a[1] + ay)
+                || contains(a, ax, ay, b[0] + bx, b[1] + by);
+    }
+
+    // Polygon (closed) intersection via edge–edge checks.
+    public static boolean edgesCross(int[] a, int ax, int ay, int[] b, int bx, int by) {
+        int na = a.length, nb = b.length;
+        for (int ia = 0; ia < na; ia += 2) {
+            int ja = (ia + 2) % na;
+            int a0x = a[ia] + ax, a0y = a[ia + 1] + ay, a1x = a[ja] + ax, a1y = a[ja + 1] + ay;
+            for (int ib = 0; ib < nb; ib += 2) {
+                int jb = (ib + 2) % nb;
+                if (segmentsIntersect(a0x, a0y, a1x, a1y,
+                        b[ib] + bx, b[ib + 1] + by, b[jb] + bx, b[jb + 1] + by)) return true;
+            }
+        }
+        return false;
+    }
+
+    // Standard ray-casting point-in-polygon.
+    public static boolean contains(int[] poly, int ox, int oy, int px, int py) {
+        boolean inside = false;
+        int n = poly.length;
+        for (int i = 0, j = n - 2; i < n; j = i, i += 2) {
+            int xi = poly[i] + ox, yi = poly[i + 1] + oy, xj = poly[j] + ox, yj = poly[j + 1] + oy;
+            boolean intersect = ((yi > py) != (yj > py)) &&
+                    (px < (long)(xj - xi) * (py - yi) / (double)(yj - yi) + xi);
+            if (intersect) inside = !inside;
+        }
+        return inside;
+    }
+
+    // Robust segment intersection (including collinear overlap).
+    public static boolean segmentsIntersect(int ax, int ay, int bx, int by,
+                                            int cx, int cy, int dx, int dy) {
+        int o1 = orient(ax, ay, bx, by, cx, cy);
+        int o2 = orient(ax, ay, bx, by, dx, dy);
+        int o3 = orient(cx, cy, dx, dy, ax, ay);
+        int o4 = orient(cx, cy, dx, dy, bx, by);
+
+        if (o1 != o2 && o3 != o4) return true; // general case
+
+        // Collinear cases
+        if (o1 == 0 && onSegment(ax, ay, bx, by, cx, cy)) return true;
+        if (o2 == 0 && onSegment(ax, ay, bx, by, dx, dy)) return true;
+        if (o3 == 0 && onSegment(cx, cy, dx, dy, ax, ay)) return true;
+        if (o4 == 0 && onSegment(cx, cy, dx, dy, bx, by)) return true;
+
+        return false;
+    }
+
+    public static int orient(int ax, int ay, int bx, int by, int cx, int cy) {
+        long v = (long)(bx - ax) * (cy - ay) - (long)(by - ay) * (cx - ax);
+        return (v > 0) ? 1 : (v < 0 ? -1 : 0);
+    }
+
+    private static boolean onSegment(int ax, int ay, int bx, int by, int px, int py) {
+        return Math.min(ax, bx) <= px && px <= Math.max(ax, bx) &&
+                Math.min(ay, by) <= py && py <= Math.max(ay, by) &&
+                orient(ax, ay, bx, by, px, py) == 0;
+    }
+}
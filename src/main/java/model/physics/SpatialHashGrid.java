@@ -0,0 +1,356 @@
+// model/physics/SpatialHashGrid.java
+package model.physics;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid for the collision broad phase, kept up to date incrementally.
+ *
+ *   • cells live in an open-addressing table keyed by a primitive long
+ *     (cx, cy) – no boxing, no per-tick HashMap churn
+ *   • each occupied cell owns a pooled int[] bucket of entry handles; the
+ *     bucket arrays are recycled when cells empty out
+ *   • entries are keyed by an external int id (the packet id) and remember
+ *     the cell range they cover, so a {@link #put} that stays inside the
+ *     same cells costs two lookups and nothing else
+ *
+ * Update protocol per pass: {@link #beginUpdate()}, {@link #put} every live
+ * entry, {@link #endUpdate()} – entries not put since beginUpdate are dropped.
+ */
+public final class SpatialHashGrid {
+
+    private static final int EMPTY = -1;
+
+    private int cellSize;
+
+    /* ── cell table: long key → dense cell index ─────────────────── */
+    private long[] tableKeys;
+    private int[]  tableCells;        // EMPTY = free slot
+    private int    tableMask;
+
+    /* dense cell storage; arrays past liveCells are pooled spares */
+    private long[]  cellKey   = new long[16];
+    private int[][] cellItems = new int[16][];
+    private int[]   cellCount = new int[16];
+    private int     liveCells;
+
+    /* ── entries: external id → handle ───────────────────────────── */
+    private int[] idKeys;
+    private int[] idHandles;          // EMPTY = free slot
+    private int   idMask;
+    private int   idSize;
+
+    private int[] hId      = new int[16];
+    private int[] hPayload = new int[16];
+    private int[] hMinCx   = new int[16], hMaxCx = new int[16];
+    private int[] hMinCy   = new int[16], hMaxCy = new int[16];
+    private int[] hStamp   = new int[16];
+    private boolean[] hAlive = new boolean[16];
+    private int[] freeHandles = new int[16];
+    private int   freeCount;
+    private int   handleTop;          // handles ever issued
+    private int   generation;
+
+    public SpatialHashGrid(int cellSize) {
+        this.cellSize = cellSize;
+        tableKeys  = new long[64];
+        tableCells = new int[64];
+        tableMask  = 63;
+        Arrays.fill(tableCells, EMPTY);
+        idKeys    = new int[64];
+        idHandles = new int[64];
+        idMask    = 63;
+        Arrays.fill(idHandles, EMPTY);
+    }
+
+    public int cellSize() { return cellSize; }
+    public int size()     { return idSize; }
+
+    /** Drop everything and switch to a new cell size. */
+    public void reset(int newCellSize) {
+        cellSize = newCellSize;
+        Arrays.fill(tableCells, EMPTY);
+        Arrays.fill(idHandles, EMPTY);
+        Arrays.fill(cellCount, 0, liveCells, 0);
+        Arrays.fill(hAlive, false);
+        liveCells = 0;
+        idSize = 0;
+        freeCount = 0;
+        handleTop = 0;
+    }
+
+    /* ── update protocol ─────────────────────────────────────────── */
+    public void beginUpdate() { generation++; }
+
+    /**
+     * Insert or move entry {@code id} (circle at x, y with radius r) and set
+     * its payload. Touches the cell table only if the covered cells changed.
+     */
+    public void put(int id, int x, int y, int r, int payload) {
+        putBox(id, x - r, y - r, x + r, y + r, payload);
+    }
+
+    /** Same as {@link #put} for an axis-aligned box, e.g. the bounds of a wire segment. */
+    public void putBox(int id, int minX, int minY, int maxX, int maxY, int payload) {
+        int minCx = Math.floorDiv(minX, cellSize), maxCx = Math.floorDiv(maxX, cellSize);
+        int minCy = Math.floorDiv(minY, cellSize), maxCy = Math.floorDiv(maxY, cellSize);
+
+        int h = handleOf(id);
+        if (h == EMPTY) {
+            h = newHandle(id);
+        } else if (hMinCx[h] == minCx && hMaxCx[h] == maxCx && hMinCy[h] == minCy && hMaxCy[h] == maxCy) {
+            hPayload[h] = payload;
+            hStamp[h]   = generation;
+            return;                                         // same cells: nothing to move
+        } else {
+            unlinkCells(h);
+        }
+        hMinCx[h] = minCx; hMaxCx[h] = maxCx;
+        hMinCy[h] = minCy; hMaxCy[h] = maxCy;
+        hPayload[h] = payload;
+        hStamp[h]   = generation;
+        for (int cx = minCx; cx <= maxCx; cx++)
+            for (int cy = minCy; cy <= maxCy; cy++)
+                addToCell(cellFor(key(cx, cy)), h);
+    }
+
+    /** Remove every entry that was not {@link #put} since the last beginUpdate; returns how many. */
+    public int endUpdate() {
+        int removed = 0;
+        for (int h = 0; h < handleTop; h++) {
+            if (hAlive[h] && hStamp[h] != generation) {
+                remove(hId[h]);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void remove(int id) {
+        int h = handleOf(id);
+        if (h == EMPTY) return;
+        unlinkCells(h);
+        idRemove(id);
+        hAlive[h] = false;
+        if (freeCount == freeHandles.length) freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        freeHandles[freeCount++] = h;
+    }
+
+    /* ── read side ───────────────────────────────────────────────── */
+    /** Number of occupied cells; cells are indexed 0 … cells()-1. */
+    public int   cells()            { return liveCells; }
+    public int   count(int cell)    { return cellCount[cell]; }
+    /** Entry handles in {@code cell}; only the first {@code count(cell)} are valid. */
+    public int[] items(int cell)    { return cellItems[cell]; }
+    public int   payload(int handle){ return hPayload[handle]; }
+    public int   id(int handle)     { return hId[handle]; }
+    /** Dense index of the cell at grid coordinates (cx, cy), or -1 if it is empty. */
+    public int   cellAt(int cx, int cy) { return cellLookup(key(cx, cy)); }
+
+    /* ── internals ───────────────────────────────────────────────── */
+    private int newHandle(int id) {
+        int h;
+        if (freeCount > 0) h = freeHandles[--freeCount];
+        else {
+            h = handleTop++;
+            if (h == hId.length) growHandles();
+        }
+        hId[h] = id;
+        hAlive[h] = true;
+        idPut(id, h);
+        return h;
+    }
+
+    private void growHandles() {
+        int n = hId.length * 2;
+        hId = Arrays.copyOf(hId, n);
+        hPayload = Arrays.copyOf(hPayload, n);
+        hMinCx = Arrays.copyOf(hMinCx, n); hMaxCx = Arrays.copyOf(hMaxCx, n);
+        hMinCy = Arrays.copyOf(hMinCy, n); hMaxCy = Arrays.copyOf(hMaxCy, n);
+        hStamp = Arrays.copyOf(hStamp, n);
+        hAlive = Arrays.copyOf(hAlive, n);
+    }
+
+    private void unlinkCells(int h) {
+        for (int cx = hMinCx[h]; cx <= hMaxCx[h]; cx++)
+            for (int cy = hMinCy[h]; cy <= hMaxCy[h]; cy++) {
+                long k = key(cx, cy);
+                int c = cellLookup(k);
+                if (c != EMPTY) removeFromCell(c, k, h);
+            }
+    }
+
+    private void addToCell(int c, int h) {
+        int[] items = cellItems[c];
+        int n = cellCount[c];
+        if (n == items.length) cellItems[c] = items = Arrays.copyOf(items, n * 2);
+        items[n] = h;
+        cellCount[c] = n + 1;
+    }
+
+    private void removeFromCell(int c, long k, int h) {
+        int[] items = cellItems[c];
+        int n = cellCount[c];
+        for (int i = 0; i < n; i++) {
+            if (items[i] != h) continue;
+            items[i] = items[--n];                          // swap-remove
+            cellCount[c] = n;
+            if (n == 0) releaseCell(c, k);
+            return;
+        }
+    }
+
+    /** Dense index of the cell for key k, creating it (with a pooled bucket) if needed. */
+    private int cellFor(long k) {
+        int slot = mix(k) & tableMask;
+        while (tableCells[slot] != EMPTY) {
+            if (tableKeys[slot] == k) return tableCells[slot];
+            slot = (slot + 1) & tableMask;
+        }
+        int c = liveCells++;
+        if (c == cellKey.length) {
+            int n = c * 2;
+            cellKey = Arrays.copyOf(cellKey, n);
+            cellItems = Arrays.copyOf(cellItems, n);
+            cellCount = Arrays.copyOf(cellCount, n);
+        }
+        if (cellItems[c] == null) cellItems[c] = new int[4];
+        cellKey[c] = k;
+        cellCount[c] = 0;
+        tableKeys[slot] = k;
+        tableCells[slot] = c;
+        if (liveCells * 2 > tableKeys.length) growTable();
+        return c;
+    }
+
+    private int cellLookup(long k) {
+        int slot = mix(k) & tableMask;
+        while (tableCells[slot] != EMPTY) {
+            if (tableKeys[slot] == k) return tableCells[slot];
+            slot = (slot + 1) & tableMask;
+        }
+        return EMPTY;
+    }
+
+    /** Drop empty cell c: delete its key, move the last dense cell into its place, keep the bucket as a spare. */
+    private void releaseCell(int c, long k) {
+        tableDelete(k);
+        int last = --liveCells;
+        if (c != last) {
+            int[] spare = cellItems[c];
+            cellKey[c]   = cellKey[last];
+            cellItems[c] = cellItems[last];
+            cellCount[c] = cellCount[last];
+            cellItems[last] = spare;
+            cellCount[last] = 0;
+            int slot = mix(cellKey[c]) & tableMask;
+            while (tableKeys[slot] != cellKey[c] || tableCells[slot] == EMPTY) slot = (slot + 1) & tableMask;
+            tableCells[slot] = c;
+        }
+    }
+
+    /* linear probing delete with backward shift, no tombstones */
+    private void tableDelete(long k) {
+        int slot = mix(k) & tableMask;
+        while (tableKeys[slot] != k || tableCells[slot] == EMPTY) {
+            if (tableCells[slot] == EMPTY) return;
+            slot = (slot + 1) & tableMask;
+        }
+        int hole = slot;
+        int next = (hole + 1) & tableMask;
+        while (tableCells[next] != EMPTY) {
+            int home = mix(tableKeys[next]) & tableMask;
+            if (((next - home) & tableMask) >= ((next - hole) & tableMask)) {
+                tableKeys[hole]  = tableKeys[next];
+                tableCells[hole] = tableCells[next];
+                hole = next;
+            }
+            next = (next + 1) & tableMask;
+        }
+        tableCells[hole] = EMPTY;
+    }
+
+    private void growTable() {
+        long[] oldKeys = tableKeys;
+        int[]  oldCells = tableCells;
+        tableKeys  = new long[oldKeys.length * 2];
+        tableCells = new int[oldKeys.length * 2];
+        tableMask  = tableKeys.length - 1;
+        Arrays.fill(tableCells, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCells[i] == EMPTY) continue;
+            int slot = mix(oldKeys[i]) & tableMask;
+            while (tableCells[slot] != EMPTY) slot = (slot + 1) & tableMask;
+            tableKeys[slot]  = oldKeys[i];
+            tableCells[slot] = oldCells[i];
+        }
+    }
+
+    /* ── id → handle map (same scheme, int keys) ─────────────────── */
+    private int handleOf(int id) {
+        int slot = mix(id) & idMask;
+        while (idHandles[slot] != EMPTY) {
+            if (idKeys[slot] == id) return idHandles[slot];
+            slot = (slot + 1) & idMask;
+        }
+        return EMPTY;
+    }
+
+    private void idPut(int id, int h) {
+        int slot = mix(id) & idMask;
+        while (idHandles[slot] != EMPTY) slot = (slot + 1) & idMask;
+        idKeys[slot] = id;
+        idHandles[slot] = h;
+        if (++idSize * 2 > idKeys.length) growIds();
+    }
+
+    private void idRemove(int id) {
+        int slot = mix(id) & idMask;
+        while (idKeys[slot] != id || idHandles[slot] == EMPTY) {
+            if (idHandles[slot] == EMPTY) return;
+            slot = (slot + 1) & idMask;
+        }
+        idSize--;
+        int hole = slot;
+        int next = (hole + 1) & idMask;
+        while (idHandles[next] != EMPTY) {
+            int home = mix(idKeys[next]) & idMask;
+            if (((next - home) & idMask) >= ((next - hole) & idMask)) {
+                idKeys[hole]    = idKeys[next];
+                idHandles[hole] = idHandles[next];
+                hole = next;
+            }
+            next = (next + 1) & idMask;
+        }
+        idHandles[hole] = EMPTY;
+    }
+
+    private void growIds() {
+        int[] oldKeys = idKeys, oldHandles = idHandles;
+        idKeys    = new int[oldKeys.length * 2];
+        idHandles = new int[oldKeys.length * 2];
+        idMask    = idKeys.length - 1;
+        Arrays.fill(idHandles, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHandles[i] == EMPTY) continue;
+            int slot = mix(oldKeys[i]) & idMask;
+            while (idHandles[slot] != EMPTY) slot = (slot + 1) & idMask;
+            idKeys[slot]    = oldKeys[i];
+            idHandles[slot] = oldHandles[i];
+        }
+    }
+
+    static long key(int cx, int cy) {
+        return (((long) cx) << 32) | (cy & 0xffffffffL);
+    }
+
+    /* 64-bit finaliser (MurmurHash3 fmix64): (cx, cy) neighbours must not collide on the low bits */
+    static int mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return (int) k;
+    }
+}
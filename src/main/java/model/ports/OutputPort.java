@@ -10,10 +10,18 @@ public class OutputPort extends Port {
     public OutputPort(System system, Point location) {
         super(system, location);
     }
-    public void movePacketThrow(Packet packet) {
-        if (line == null || packet.getDoneMovement()) return;             // not wired
+    /**
+     * Puts {@code packet} on this port's wire if the wire admits one now: it
+     * is wired and the previous packet has cleared the headway
+     * ({@link model.Line#isOccupied()}).
+     * @return false, leaving the packet where it is, if it was not admitted
+     */
+    public boolean movePacketThrow(Packet packet) {
+        if (line == null || packet.getDoneMovement()) return false;       // not wired
+        if (line.isOccupied()) return false;                              // inside the last packet's headway
 
         packet.beginTraversal(line, getCenter());
         line.setMovingPacket(packet);
+        return true;
     }
 }
@@ -0,0 +1,23 @@
+// model/profiling/TickEvent.java
+package model.profiling;
+
+import jdk.jfr.*;
+
+/** One SystemManager.update() call, emitted by {@link TickProfiler}. */
+@Name("p2p.Tick")
+@Label("Simulation Tick")
+@Category({"P2P", "Simulation"})
+@Description("Phase durations and load of one SystemManager.update()")
+@StackTrace(false)
+class TickEvent extends Event {
+    @Label("Tick")              long tick;
+    @Label("Tick Time")         @Timespan long tickNanos;
+    @Label("Advance")           @Timespan long advance;      // packet motion and effect zones, all wires
+    @Label("Timed Effects")     @Timespan long timedEffects;
+    @Label("Collisions")        @Timespan long collisions;
+    @Label("Readiness")         @Timespan long readiness;
+    @Label("Routing")           @Timespan long routing;
+    @Label("Packets In Flight") int packetsInFlight;
+    @Label("Candidate Pairs")   int candidatePairs;
+    @Label("Hits")              int hits;
+}
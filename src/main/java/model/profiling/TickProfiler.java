@@ -0,0 +1,126 @@
+// model/profiling/TickProfiler.java
+package model.profiling;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-phase wall-clock timing of SystemManager.update().
+ *
+ * Off by default (or on with -Dp2p.profile=true); when off, update() only
+ * pays for one boolean test per phase. When on, every tick
+ *   • adds its phase durations to a rolling histogram per phase, and
+ *   • commits one {@link TickEvent} to JDK Flight Recorder (if a recording
+ *     has that event enabled).
+ */
+public final class TickProfiler {
+
+    /** Timed once per boundary, never per packet. */
+    public enum Phase {
+        ADVANCE,        // every wire: move its packets, fire effect zones, reorder, re-admit
+        TIMED_EFFECTS,  // timers handed over from other threads, then the wheel's due ones
+        COLLISIONS,
+        READINESS,
+        ROUTING
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int WINDOW = 1024;            // ticks kept per histogram
+
+    private boolean enabled = Boolean.getBoolean("p2p.profile");
+
+    private final long[] current = new long[PHASES.length];
+    private long tickStart;
+    private long ticks;
+
+    private final Map<Phase, RollingHistogram> perPhase = new EnumMap<>(Phase.class);
+    private final RollingHistogram total = new RollingHistogram(WINDOW);
+
+    public TickProfiler() {
+        for (Phase p : PHASES) perPhase.put(p, new RollingHistogram(WINDOW));
+    }
+
+    public boolean isEnabled()        { return enabled; }
+    public void setEnabled(boolean on){ enabled = on; }
+
+    /** Start of a tick; returns the timestamp to pass to the first {@link #lap}. */
+    public long beginTick() {
+        Arrays.fill(current, 0L);
+        return tickStart = System.nanoTime();
+    }
+
+    /** Charge the time since {@code since} to {@code phase}; returns now for the next lap. */
+    public long lap(Phase phase, long since) {
+        long now = System.nanoTime();
+        current[phase.ordinal()] += now - since;
+        return now;
+    }
+
+    public void endTick(int packetsInFlight, int candidatePairs, int hits) {
+        long tickNanos = System.nanoTime() - tickStart;
+        for (Phase p : PHASES) perPhase.get(p).record(current[p.ordinal()]);
+        total.record(tickNanos);
+        ticks++;
+
+        TickEvent ev = new TickEvent();
+        if (ev.isEnabled()) {
+            ev.tick            = ticks;
+            ev.tickNanos       = tickNanos;
+            ev.advance         = current[Phase.ADVANCE.ordinal()];
+            ev.timedEffects    = current[Phase.TIMED_EFFECTS.ordinal()];
+            ev.collisions      = current[Phase.COLLISIONS.ordinal()];
+            ev.readiness       = current[Phase.READINESS.ordinal()];
+            ev.routing         = current[Phase.ROUTING.ordinal()];
+            ev.packetsInFlight = packetsInFlight;
+            ev.candidatePairs  = candidatePairs;
+            ev.hits            = hits;
+            ev.commit();
+        }
+    }
+
+    public long ticksRecorded()                 { return ticks; }
+    public RollingHistogram histogram(Phase p)  { return perPhase.get(p); }
+    public RollingHistogram tickHistogram()     { return total; }
+
+    /**
+     * Durations (ns) of the last {@code capacity} ticks. Queries copy and
+     * sort the window, so they are meant for reports, not for the hot path.
+     */
+    public static final class RollingHistogram {
+        private final long[] samples;
+        private int next, count;
+
+        RollingHistogram(int capacity) { samples = new long[capacity]; }
+
+        void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) count++;
+        }
+
+        public int count() { return count; }
+
+        /** q in [0, 1]; 0 when empty. */
+        public long percentile(double q) {
+            if (count == 0) return 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int i = (int) Math.ceil(q * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, i))];
+        }
+
+        public long max() {
+            long m = 0;
+            for (int i = 0; i < count; i++) m = Math.max(m, samples[i]);
+            return m;
+        }
+
+        public double mean() {
+            if (count == 0) return 0;
+            long sum = 0;
+            for (int i = 0; i < count; i++) sum += samples[i];
+            return (double) sum / count;
+        }
+    }
+}
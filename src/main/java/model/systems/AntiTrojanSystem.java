@@ -7,20 +7,19 @@ import model.ports.*;
 import model.System;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 
 public class AntiTrojanSystem extends System {
     private static final float DETECTION_RADIUS = 50f;
     private static final float COOLDOWN_TIME = 2.0f;
-    private float cooldownRemaining = 0f;
+    private boolean coolingDown;                 // cleared by a timer on the manager's wheel
 
 
     public AntiTrojanSystem(Point location, List<InputPort> inputPorts, List<OutputPort> outputPorts, SystemManager systemManager, int id) {
         super(location, inputPorts, outputPorts, systemManager, id);
     }
     public void receivePacket(Packet packet) {
-        packet.getLine().removeMovingPacket();
+        packet.getLine().removeMovingPacket(packet);
         packet.setLine(null);
         if(packet instanceof BigPacket big){
             handleBigPacketArrival(big);
@@ -32,16 +31,14 @@ public class AntiTrojanSystem extends System {
     }
 
     public void cleanTrojan() {
-        // tick down cooldown
-        cooldownRemaining = Math.max(0f, cooldownRemaining - Packet.dt);
-
-        if (cooldownRemaining > 0f) return;
+        if (coolingDown) return;
 
         for (Packet p : packets) {
             if (p.hasTrojan() && p.getPoint() != null
                     && location.distance(p.getPoint()) <= DETECTION_RADIUS) {
                 p.isNotTrojan();
-                cooldownRemaining = COOLDOWN_TIME;
+                coolingDown = true;
+                systemManager.getTimers().schedule(systemManager.ticksFor(COOLDOWN_TIME), () -> coolingDown = false);
                 break;  // only one clean per cooldown
             }
         }
@@ -52,22 +49,13 @@ public class AntiTrojanSystem extends System {
         // pure routing: try incompatible ports first, then compatible
         if (packets.isEmpty()) return;
 
-        Packet head = packets.get(0);
-
-        ArrayList<OutputPort> incompatible = new ArrayList<>();
-        ArrayList<OutputPort> compatible   = new ArrayList<>();
-
-        for (OutputPort op : outputPorts) {
-            if (isCompatible(head, op)) compatible.add(op);
-            else                         incompatible.add(op);
-        }
+        Packet head = packets.peekFirst();
 
-        OutputPort chosen = firstFreePort(incompatible);
-        if (chosen == null) chosen = firstFreePort(compatible);
+        OutputPort chosen = firstFreePort(incompatiblePorts(head));
+        if (chosen == null) chosen = firstFreePort(compatiblePorts(head));
 
         if (chosen != null) {
-            chosen.movePacketThrow(head);
-            packets.remove(head);
+            if (chosen.movePacketThrow(head)) packets.removeFirst();
         }
     }
 }
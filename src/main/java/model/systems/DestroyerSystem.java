@@ -8,7 +8,6 @@ import model.ports.*;
 import model.System;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -21,7 +20,7 @@ public class DestroyerSystem extends System {
     }
 //    @Override
     public void receivePacket(Packet packet) {
-        packet.getLine().removeMovingPacket();
+        packet.getLine().removeMovingPacket(packet);
         packet.setLine(null);
         if(packet instanceof BigPacket big){
             handleBigPacketArrival(big);
@@ -46,30 +45,20 @@ public class DestroyerSystem extends System {
     public void sendPacket() {
         if (packets.isEmpty()) return;
 
-        Packet packet = packets.get(0);  // FIFO
+        Packet packet = packets.peekFirst();  // FIFO
 
-        // 1) partition ports: incompatible first
-        ArrayList<OutputPort> incompatible = new ArrayList<>();
-        ArrayList<OutputPort> compatible   = new ArrayList<>();
-
-        for (OutputPort op : outputPorts) {
-            if (isCompatible(packet, op)) compatible.add(op);
-            else                            incompatible.add(op);
-        }
-
-        // 2) pick a free incompatible port, else compatible
-        OutputPort chosen = firstFreePort(incompatible);
+        // 1) pick a free incompatible port, else compatible
+        OutputPort chosen = firstFreePort(incompatiblePorts(packet));
         if (chosen == null) {
-            chosen = firstFreePort(compatible);
+            chosen = firstFreePort(compatiblePorts(packet));
         }
 
-        // 3) if it’s a “wrong” port, let the packet record that
-        if (chosen != null) {
-            if (incompatible.contains(chosen)) {
+        // 2) if it’s a “wrong” port, let the packet record that
+        if (chosen != null && chosen.movePacketThrow(packet)) {
+            packets.removeFirst();
+            if (!isCompatible(packet, chosen)) {
                 packet.wrongPort(chosen);
             }
-            chosen.movePacketThrow(packet);
-            packets.remove(packet);
         }
         // else: leave it queued until some port frees up
     }
@@ -19,7 +19,7 @@ public class MergerSystem extends System{
 
     }
     public void receivePacket(Packet packet) {
-        packet.getLine().removeMovingPacket();
+        packet.getLine().removeMovingPacket(packet);
         packet.setLine(null);
         if(packet instanceof BigPacket big){
             handleBigPacketArrival(big);
@@ -31,7 +31,7 @@ public class MergerSystem extends System{
             return;     // don’t queue – they’re consumed
         }
 
-        packets.add(packet); // ordinary packet
+        addPacket(packet);   // ordinary packet
         packet.setSystem(this);
         addingCoin(packet);
     }
@@ -61,7 +61,7 @@ public class MergerSystem extends System{
         }
 
         systemManager.addPacket(rebuilt);   // global registry
-        packets.add(rebuilt);               // queue locally for routing
+        addPacket(rebuilt);                 // queue locally for routing
         bins.remove(parentId);              // bin done
     }
 
@@ -71,28 +71,16 @@ public class MergerSystem extends System{
         /* 1 ── nothing to do if we have no packets */
         if (packets.isEmpty()) return;
 
-        Packet packet = packets.get(0);                 // FIFO policy
+        Packet packet = packets.peekFirst();                 // FIFO policy
 
-        /* 2 ── partition output ports into compatible / incompatible */
-        ArrayList<OutputPort> compatible   = new ArrayList<>();
-        ArrayList<OutputPort> incompatible = new ArrayList<>();
-
-        for (OutputPort op : outputPorts) {
-            if (isCompatible(packet, op))
-                compatible.add(op);
-            else
-                incompatible.add(op);
-        }
-
-        /* 3 ── look for a free line, first among compatible ports */
-        OutputPort chosen = firstFreePort(compatible);
+        /* 2 ── look for a free line, first among compatible ports */
+        OutputPort chosen = firstFreePort(compatiblePorts(packet));
         if (chosen == null)                      // fall back to non-compatible
-            chosen = firstFreePort(incompatible);
+            chosen = firstFreePort(incompatiblePorts(packet));
 
-        /* 4 ── if we found one, inject the packet onto the line */
+        /* 3 ── if we found one, inject the packet onto the line */
         if (chosen != null) {
-            chosen.movePacketThrow(packet);
-            packets.remove(packet);
+            if (chosen.movePacketThrow(packet)) packets.removeFirst();
         }
         /* else: every line is busy → leave packet queued */
     }
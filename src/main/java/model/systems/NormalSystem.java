@@ -10,7 +10,6 @@ import model.ports.InputPort;
 import model.ports.OutputPort;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 
 public class NormalSystem extends System {
@@ -18,7 +17,7 @@ public class NormalSystem extends System {
         super(location, inputPorts, outputPorts, systemManager, id);
     }
     public void receivePacket(Packet packet){
-        packet.getLine().removeMovingPacket();
+        packet.getLine().removeMovingPacket(packet);
         packet.setLine(null);
         if(packet instanceof BigPacket big){
             handleBigPacketArrival(big);
@@ -33,27 +32,17 @@ public class NormalSystem extends System {
         /* 1 ── nothing to do if we have no packets */
         if (packets.isEmpty()) return;
 
-        Packet packet = packets.get(0);                 // FIFO policy
+        Packet packet = packets.peekFirst();                 // FIFO policy
         if(packet.getDoneMovement())return;
-        ArrayList<OutputPort> compatible   = new ArrayList<>();
-        ArrayList<OutputPort> incompatible = new ArrayList<>();
 
-        for (OutputPort op : outputPorts) {
-            if (isCompatible(packet, op))
-                compatible.add(op);
-            else
-                incompatible.add(op);
-        }
-
-        /* 3 ── look for a free line, first among compatible ports */
-        OutputPort chosen = firstFreePort(compatible);
+        /* 2 ── look for a free line, first among compatible ports */
+        OutputPort chosen = firstFreePort(compatiblePorts(packet));
         if (chosen == null)                      // fall back to non-compatible
-            chosen = firstFreePort(incompatible);
+            chosen = firstFreePort(incompatiblePorts(packet));
 
-        /* 4 ── if we found one, inject the packet onto the line */
+        /* 3 ── if we found one, inject the packet onto the line */
         if (chosen != null) {
-           chosen.movePacketThrow(packet);
-           packets.remove(packet);
+           if (chosen.movePacketThrow(packet)) packets.removeFirst();
         }
         /* else: every line is busy → leave packet queued */
     }
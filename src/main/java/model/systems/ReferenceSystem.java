@@ -9,7 +9,6 @@ import model.ports.*;
 import model.System;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 
 public class ReferenceSystem extends System {
@@ -20,7 +19,7 @@ public class ReferenceSystem extends System {
         //new line remove if fucked up
         systemManager.addToReceivedPacket();
         systemManager.removePacket(packet);
-        packet.getLine().removeMovingPacket();
+        packet.getLine().removeMovingPacket(packet);
         packet.setLine(null);
         packet.setSystem(this);
         packets.remove(packet);
@@ -39,24 +38,17 @@ public class ReferenceSystem extends System {
         // nothing to do if we have no packets
         if (packets.isEmpty()) return;
 
-        Packet packet = packets.get(0);  // FIFO
+        Packet packet = packets.peekFirst();  // FIFO
         if(packet.getDoneMovement())return;
-        ArrayList<OutputPort> compatible   = new ArrayList<>();
-        ArrayList<OutputPort> incompatible = new ArrayList<>();
-        for (OutputPort op : outputPorts) {
-            if (isCompatible(packet, op)) compatible.add(op);
-            else                   incompatible.add(op);
-        }
 
         // look for a free line, first among compatible ports
-        OutputPort chosen = firstFreePort(compatible);
+        OutputPort chosen = firstFreePort(compatiblePorts(packet));
         if (chosen == null)
-            chosen = firstFreePort(incompatible);
+            chosen = firstFreePort(incompatiblePorts(packet));
 
         // if we found one, inject the packet onto the line
         if (chosen != null) {
-            chosen.movePacketThrow(packet);
-            packets.remove(packet);
+            if (chosen.movePacketThrow(packet)) packets.removeFirst();
         }
     }
 }
@@ -9,7 +9,6 @@ import model.packets.SecretPacket2;
 import model.ports.*;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.Random;
 import java.util.List;
 
@@ -21,7 +20,7 @@ public class SpySystem extends System {
     }
 
     public void receivePacket(Packet packet) {
-        packet.getLine().removeMovingPacket();
+        packet.getLine().removeMovingPacket(packet);
         packet.setLine(null);
         if(packet instanceof BigPacket big){
             handleBigPacketArrival(big);
@@ -51,22 +50,13 @@ public class SpySystem extends System {
         if (packets.isEmpty()) {
             return;
         }
-        Packet packet = packets.get(0);
+        Packet packet = packets.peekFirst();
 
-        ArrayList<OutputPort> compatible   = new ArrayList<>();
-        ArrayList<OutputPort> incompatible = new ArrayList<>();
-
-        for (OutputPort op : outputPorts) {
-            if (isCompatible(packet, op)) compatible.add(op);
-            else                         incompatible.add(op);
-        }
-
-        OutputPort chosen = firstFreePort(compatible);
-        if (chosen == null) chosen = firstFreePort(incompatible);
+        OutputPort chosen = firstFreePort(compatiblePorts(packet));
+        if (chosen == null) chosen = firstFreePort(incompatiblePorts(packet));
 
         if (chosen != null) {
-            chosen.movePacketThrow(packet);
-            packets.remove(packet);
+            if (chosen.movePacketThrow(packet)) packets.removeFirst();
         }
     }
 
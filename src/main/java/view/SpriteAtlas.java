@@ -0,0 +1,235 @@
+// src/main/java/view/SpriteAtlas.java
+package view;
+
+import model.PacketKind;
+
+import java.awt.*;
+import java.awt.geom.Arc2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Pre-rendered packet glyphs. Each (kind, scale, colour, label) is drawn
+ * once, anti-aliased, into a small translucent image; after that a packet
+ * costs one drawImage instead of building polygons, arcs and fonts.
+ *
+ *   ▸ fixed kinds   – one sprite per scale
+ *   ▸ BigPacket     – per colour and dot count
+ *   ▸ BitPacket     – per colour and fragment index (the label)
+ *
+ * Parameters outside [0, MAX_PARAM) are rendered on demand and not kept.
+ * EDT only.
+ */
+final class SpriteAtlas {
+
+    /** Travelling glyph on a wire, or the small icon under a system's box. */
+    enum Scale {
+        WIRE(8, 16), QUEUE(6, 12);
+        final int r, clusterR;
+        Scale(int r, int clusterR) { this.r = r; this.clusterR = clusterR; }
+    }
+
+    /** An image centred on (half, half). */
+    static final class Sprite {
+        final Image image;
+        final int   half;
+        Sprite(Image image, int half) { this.image = image; this.half = half; }
+
+        void drawAt(Graphics2D g2, int cx, int cy) { g2.drawImage(image, cx - half, cy - half, null); }
+    }
+
+    private static final int MAX_PARAM = 256;
+    private static final int DOT_R = 4;
+    private static final BasicStroke STROKE_2 = new BasicStroke(2);
+    private static final Color SHIELD_FILL  = new Color(0x5599FF);
+    private static final Color SECRET1_FILL = new Color(0xFF9800);
+    private static final Color SECRET2_FILL = new Color(0x3F51B5);
+    private static final Color[] ID_COLORS = {
+            new Color(0xEF5350),   // red
+            new Color(0x42A5F5),   // blue
+            new Color(0x66BB6A),   // green
+            new Color(0xFFB74D),   // orange
+            new Color(0xAB47BC),   // purple
+            new Color(0x26A69A) }; // teal
+
+    private final Font labelFont;
+    private final GraphicsConfiguration gc;
+    private final Sprite[][] fixed = new Sprite[Scale.values().length][PacketKind.values().length];
+    // [scale][0 = BIG, 1 = BIT][colour][param], rows grown on demand
+    private final Sprite[][][][] keyed = new Sprite[Scale.values().length][2][ID_COLORS.length][];
+
+    /** @param baseFont the panel's font; fragment labels use it bold at 8 pt */
+    SpriteAtlas(Font baseFont, GraphicsConfiguration gc) {
+        this.labelFont = baseFont.deriveFont(Font.BOLD, 8f);
+        this.gc = gc;
+    }
+
+    /** @param colorId and {@code param} as reported by {@link PacketKind}; ignored by fixed kinds */
+    Sprite get(PacketKind k, Scale s, int colorId, int param) {
+        if (k == PacketKind.BIG || k == PacketKind.BIT) return keyed(s, k, colorId, param);
+        Sprite sp = fixed[s.ordinal()][k.ordinal()];
+        if (sp == null) fixed[s.ordinal()][k.ordinal()] = sp = render(k, s, 0, 0);
+        return sp;
+    }
+
+    private static Color colorForId(int id) {
+        return ID_COLORS[Math.floorMod(id, ID_COLORS.length)];
+    }
+
+    /* ── cache ───────────────────────────────────────────────────── */
+    private Sprite keyed(Scale s, PacketKind k, int colorId, int param) {
+        if (param < 0 || param >= MAX_PARAM) return render(k, s, colorId, param);
+        Sprite[][] byColour = keyed[s.ordinal()][k == PacketKind.BIG ? 0 : 1];
+        int c = Math.floorMod(colorId, ID_COLORS.length);
+        Sprite[] row = byColour[c];
+        if (row == null || row.length <= param) {
+            row = byColour[c] = (row == null) ? new Sprite[Math.max(8, param + 1)]
+                                              : Arrays.copyOf(row, Math.max(row.length * 2, param + 1));
+        }
+        Sprite sp = row[param];
+        if (sp == null) row[param] = sp = render(k, s, colorId, param);
+        return sp;
+    }
+
+    private Sprite render(PacketKind k, Scale s, int colorId, int param) {
+        // room for the widest glyph (infinity spans 2r each side, a cluster r + dot)
+        int half = Math.max(2 * s.r, s.clusterR + DOT_R) + 4;
+        int size = 2 * half;
+        BufferedImage img = (gc != null)
+                ? gc.createCompatibleImage(size, size, Transparency.TRANSLUCENT)
+                : new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = img.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setStroke(STROKE_2);
+            paint(g2, k, s, colorId, param, half, half);
+        } finally {
+            g2.dispose();
+        }
+        return new Sprite(img, half);
+    }
+
+    /* ── glyphs (drawn once per sprite) ──────────────────────────── */
+    private void paint(Graphics2D g2, PacketKind k, Scale s, int colorId, int param, int cx, int cy) {
+        int r = s.r;
+        switch (k) {
+            case INFINITY -> {
+                g2.setColor(Color.MAGENTA);
+                if (s == Scale.WIRE) drawInfinity(g2, cx, cy, r);
+                else {
+                    g2.drawOval(cx - 2 * r, cy - r, 2 * r, 2 * r);
+                    g2.drawOval(cx,         cy - r, 2 * r, 2 * r);
+                }
+            }
+            case SQUARE -> {
+                g2.setColor(Color.BLUE);
+                g2.fillRect(cx - r, cy - r, 2 * r, 2 * r);
+            }
+            case TRIANGLE -> {
+                g2.setColor(Color.ORANGE);
+                int[] xs = {cx, cx - r, cx + r};
+                int[] ys = {cy - r, cy + r, cy + r};
+                g2.fillPolygon(xs, ys, 3);
+            }
+            case BIG       -> drawCircleCluster(g2, cx, cy, param, s.clusterR, colorForId(colorId));
+            case BIT       -> drawCircle(g2, cx, cy, r, colorForId(colorId), String.valueOf(param));
+            case PROTECTED -> drawShield(g2, cx, cy, r);
+            case SECRET1   -> drawHexagon(g2, cx, cy, r, SECRET1_FILL);
+            case SECRET2   -> drawPadlock(g2, cx, cy, r, SECRET2_FILL);
+            case OTHER -> {
+                g2.setColor(Color.GRAY);
+                if (s == Scale.WIRE) g2.drawOval(cx - r, cy - r, 2 * r, 2 * r);
+                else                 g2.fillOval(cx - r, cy - r, 2 * r, 2 * r);
+            }
+        }
+    }
+
+    private void drawCircle(Graphics2D g2, int cx, int cy, int r, Color fill, String annotation) {
+        g2.setColor(fill);
+        g2.fillOval(cx - r, cy - r, 2 * r, 2 * r);
+
+        if (annotation != null) {
+            g2.setColor(Color.WHITE);
+            g2.setFont(labelFont);
+            int w = g2.getFontMetrics().stringWidth(annotation);
+            g2.drawString(annotation, cx - w / 2, cy + 3);
+        }
+    }
+
+    private static void drawInfinity(Graphics2D g2, int cx, int cy, int r) {
+        int d = r;                     // horizontal radius of each loop
+        int w = r / 2;                 // stroke thickness
+
+        Stroke old = g2.getStroke();
+        g2.setStroke(new BasicStroke(w, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+
+        // left loop
+        g2.drawOval(cx - 2 * d, cy - d, 2 * d, 2 * d);
+        // right loop
+        g2.drawOval(cx, cy - d, 2 * d, 2 * d);
+
+        g2.setStroke(old);             // restore
+    }
+
+    private static void drawCircleCluster(Graphics2D g2, int cx, int cy, int count, int clusterR, Color fill) {
+        double step = 2 * Math.PI / count;
+        g2.setColor(fill);
+        for (int i = 0; i < count; i++) {
+            double ang = i * step;
+            int dx = (int) Math.round(clusterR * Math.cos(ang));
+            int dy = (int) Math.round(clusterR * Math.sin(ang));
+            g2.fillOval(cx + dx - DOT_R, cy + dy - DOT_R, 2 * DOT_R, 2 * DOT_R);
+        }
+    }
+
+    private static void drawShield(Graphics2D g2, int cx, int cy, int r) {
+        int w = r;
+        int h = (int) (r * 1.4);
+        int y0 = cy - r;
+
+        Polygon s = new Polygon();
+        s.addPoint(cx,     y0);             // top
+        s.addPoint(cx + w, y0 + h / 3);     // upper-right
+        s.addPoint(cx + w, y0 + 2 * h / 3); // lower-right
+        s.addPoint(cx,     y0 + h);         // bottom tip
+        s.addPoint(cx - w, y0 + 2 * h / 3); // lower-left
+        s.addPoint(cx - w, y0 + h / 3);     // upper-left
+
+        g2.setColor(SHIELD_FILL);
+        g2.fillPolygon(s);
+        g2.setColor(Color.WHITE);
+        g2.setStroke(STROKE_2);
+        g2.drawPolygon(s);
+    }
+
+    private static void drawHexagon(Graphics2D g2, int cx, int cy, int r, Color fill) {
+        Polygon hex = new Polygon();
+        for (int i = 0; i < 6; i++) {
+            double ang = Math.toRadians(60 * i - 30); // flat top
+            hex.addPoint((int) Math.round(cx + r * Math.cos(ang)),
+                         (int) Math.round(cy + r * Math.sin(ang)));
+        }
+        g2.setColor(fill);
+        g2.fillPolygon(hex);
+        g2.setColor(Color.WHITE);
+        g2.setStroke(STROKE_2);
+        g2.drawPolygon(hex);
+    }
+
+    private static void drawPadlock(Graphics2D g2, int cx, int cy, int r, Color fill) {
+        int bodyW = 2 * r, bodyH = 2 * r;
+        int bodyX = cx - bodyW / 2, bodyY = cy - r / 2;
+        int shackleR = r; // radius of shackle arc
+
+        // body
+        g2.setColor(fill);
+        g2.fillRoundRect(bodyX, bodyY, bodyW, bodyH, 4, 4);
+        g2.setColor(Color.WHITE);
+        g2.setStroke(STROKE_2);
+        g2.drawRoundRect(bodyX, bodyY, bodyW, bodyH, 4, 4);
+
+        // shackle
+        g2.draw(new Arc2D.Double(cx - shackleR, bodyY - shackleR / 2.0, 2 * shackleR, shackleR, 0, 180, Arc2D.OPEN));
+    }
+}